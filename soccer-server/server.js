@@ -8,9 +8,15 @@ app.use(express.json());
 // Store current scores for each event
 const scores = new Map();
 
+// Open score stream subscriptions
+const streamClients = new Set();
+
 // Interval to randomly update scores
 const scoreUpdateInterval = 10000; // 10 seconds
 
+// Comment line that keeps idle stream connections from being closed by proxies
+const streamHeartbeatInterval = 15000; // 15 seconds
+
 // Start the score update interval
 setInterval(() => {
   updateRandomScores();
@@ -29,6 +35,7 @@ function updateRandomScores() {
       currentScores[0] = (leftScore + 1).toString();
       score.currentScore = currentScores.join(':');
       console.log(`Event ${eventId}: Left team scored! New score: ${score.currentScore}`);
+      broadcastScore(score);
     } else if (random < 0.9) {
       // Right team scores
       const currentScores = score.currentScore.split(':');
@@ -36,6 +43,7 @@ function updateRandomScores() {
       currentScores[1] = (rightScore + 1).toString();
       score.currentScore = currentScores.join(':');
       console.log(`Event ${eventId}: Right team scored! New score: ${score.currentScore}`);
+      broadcastScore(score);
     } else {
       // No team scores this time
       console.log(`Event ${eventId}: No goals this round`);
@@ -43,11 +51,25 @@ function updateRandomScores() {
   }
 }
 
-// Endpoint to get current score for an event
-app.get('/:eventId/score', (req, res) => {
-  const eventId = req.params.eventId;
-  
-  // If this event doesn't exist, initialize it with 0:0
+// Pushes a score change to every open stream
+function broadcastScore(score) {
+  const message = `event: score\ndata: ${JSON.stringify({
+    eventId: score.eventId,
+    currentScore: score.currentScore
+  })}\n\n`;
+  for (const client of streamClients) {
+    client.write(message);
+  }
+}
+
+setInterval(() => {
+  for (const client of streamClients) {
+    client.write(': ping\n\n');
+  }
+}, streamHeartbeatInterval);
+
+// Returns the score of an event, a new event starts at 0:0
+function getOrCreateScore(eventId) {
   if (!scores.has(eventId)) {
     scores.set(eventId, {
       eventId: eventId,
@@ -55,8 +77,13 @@ app.get('/:eventId/score', (req, res) => {
     });
     console.log(`New event created: ${eventId}`);
   }
-  
-  const score = scores.get(eventId);
+
+  return scores.get(eventId);
+}
+
+// Endpoint to get current score for an event
+app.get('/:eventId/score', (req, res) => {
+  const score = getOrCreateScore(req.params.eventId);
   
   res.json({
     eventId: score.eventId,
@@ -64,6 +91,40 @@ app.get('/:eventId/score', (req, res) => {
   });
 });
 
+// Bulk endpoint to get current scores for many events in one request
+app.post('/scores', (req, res) => {
+  const eventIds = req.body && req.body.eventIds;
+  if (!Array.isArray(eventIds)) {
+    return res.status(400).json({ error: 'eventIds must be an array' });
+  }
+
+  res.json(eventIds.map((eventId) => {
+    const score = getOrCreateScore(eventId);
+    return {
+      eventId: score.eventId,
+      currentScore: score.currentScore
+    };
+  }));
+});
+
+// Server-sent events stream of score changes for all events, one connection serves every event
+app.get('/scores/stream', (req, res) => {
+  res.set({
+    'Content-Type': 'text/event-stream',
+    'Cache-Control': 'no-cache',
+    'Connection': 'keep-alive'
+  });
+  res.flushHeaders();
+
+  streamClients.add(res);
+  console.log(`Score stream opened, ${streamClients.size} subscriber(s)`);
+
+  req.on('close', () => {
+    streamClients.delete(res);
+    console.log(`Score stream closed, ${streamClients.size} subscriber(s)`);
+  });
+});
+
 // Endpoint to get all active scores (for debugging)
 app.get('/debug/all', (req, res) => {
   const allScores = Array.from(scores.entries()).map(([eventId, score]) => score);
@@ -73,4 +134,6 @@ app.get('/debug/all', (req, res) => {
 app.listen(port, () => {
   console.log(`Soccer server listening at http://localhost:${port}`);
   console.log(`Example: GET /event-123/score`);
+  console.log(`Example: POST /scores {"eventIds": ["event-123", "event-456"]}`);
+  console.log(`Example: GET /scores/stream`);
 });
\ No newline at end of file
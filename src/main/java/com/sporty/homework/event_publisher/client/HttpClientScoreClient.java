@@ -0,0 +1,151 @@
+package com.sporty.homework.event_publisher.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sporty.homework.event_publisher.dto.SoccerScoreBatchRequestDto;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Score client on the JDK HTTP client. Connections are pooled and reused, HTTP/2 is used
+ * whenever the upstream supports it, and every request, body included, is bounded by explicit
+ * timeouts.
+ */
+@Component
+@ConditionalOnProperty(name = "score.client.type", havingValue = "http-client", matchIfMissing = true)
+public class HttpClientScoreClient implements ScoreClient {
+
+    private static final TypeReference<List<SoccerScoreDto>> SCORE_LIST = new TypeReference<>() {};
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public HttpClientScoreClient(ObjectMapper objectMapper,
+                                 @Value("${score.endpoint.url:http://localhost:8081}") String baseUrl,
+                                 @Value("${score.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                 @Value("${score.client.request-timeout-ms:5000}") long requestTimeoutMs) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(executor)
+                .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    }
+
+    @Override
+    public SoccerScoreDto fetchScore(String eventId) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + eventId + "/score"))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return send(request, (statusCode, body) -> {
+            if (statusCode / 100 != 2) {
+                throw new IllegalStateException("Soccer server returned status " + statusCode);
+            }
+            return objectMapper.readValue(body, SoccerScoreDto.class);
+        });
+    }
+
+    @Override
+    public Optional<List<SoccerScoreDto>> fetchScores(List<String> eventIds) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/scores"))
+                    .timeout(requestTimeout)
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            objectMapper.writeValueAsBytes(new SoccerScoreBatchRequestDto(eventIds))))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return send(request, (statusCode, body) -> {
+            if (statusCode == 404 || statusCode == 405) {
+                return Optional.empty();
+            }
+            if (statusCode / 100 != 2) {
+                throw new IllegalStateException("Soccer server returned status " + statusCode);
+            }
+            return Optional.of(objectMapper.readValue(body, SCORE_LIST));
+        });
+    }
+
+    /**
+     * Sends the request and decodes the body as it streams in, so a large bulk response is never
+     * buffered whole. The request timeout stops once the headers are in, so the decode gets
+     * whatever is left of the same deadline and a stalled body is cut off there.
+     */
+    private <T> T send(HttpRequest request, BodyDecoder<T> decoder) {
+        long deadline = System.nanoTime() + requestTimeout.toNanos();
+        CompletableFuture<HttpResponse<InputStream>> response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        HttpResponse<InputStream> headers = await(response, deadline, () -> response.cancel(true));
+        Future<T> decoded = executor.submit(() -> {
+            try (InputStream body = headers.body()) {
+                return decoder.decode(headers.statusCode(), body);
+            }
+        });
+        // Interrupting the decoding thread unblocks its read and closes the body, which drops the connection
+        return await(decoded, deadline, () -> decoded.cancel(true));
+    }
+
+    private <V> V await(Future<V> future, long deadline, Runnable cancel) {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancel.run();
+            throw new UncheckedIOException(new HttpTimeoutException("Soccer server did not answer within " + requestTimeout));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Error fetching scores", e.getCause());
+        } catch (InterruptedException e) {
+            cancel.run();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching scores", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyDecoder<T> {
+
+        T decode(int statusCode, InputStream body) throws IOException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
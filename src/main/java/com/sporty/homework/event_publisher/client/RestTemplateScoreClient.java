@@ -0,0 +1,50 @@
+package com.sporty.homework.event_publisher.client;
+
+import com.sporty.homework.event_publisher.dto.SoccerScoreBatchRequestDto;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "score.client.type", havingValue = "rest-template")
+public class RestTemplateScoreClient implements ScoreClient {
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+
+    public RestTemplateScoreClient(RestTemplateBuilder restTemplateBuilder,
+                                   @Value("${score.endpoint.url:http://localhost:8081}") String baseUrl,
+                                   @Value("${score.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                   @Value("${score.client.request-timeout-ms:5000}") long requestTimeoutMs) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(requestTimeoutMs))
+                .build();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public SoccerScoreDto fetchScore(String eventId) {
+        return restTemplate.getForObject(baseUrl + "/" + eventId + "/score", SoccerScoreDto.class);
+    }
+
+    @Override
+    public Optional<List<SoccerScoreDto>> fetchScores(List<String> eventIds) {
+        try {
+            SoccerScoreDto[] scores = restTemplate.postForObject(
+                    baseUrl + "/scores", new SoccerScoreBatchRequestDto(eventIds), SoccerScoreDto[].class);
+            return Optional.of(scores == null ? List.of() : Arrays.asList(scores));
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sporty.homework.event_publisher.client;
+
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fetches live scores from the soccer server. Implementations throw a runtime exception when
+ * a request fails or times out.
+ */
+public interface ScoreClient {
+
+    SoccerScoreDto fetchScore(String eventId);
+
+    /**
+     * Fetches the scores of many events in one request.
+     *
+     * @return the scores, or empty when the upstream has no bulk route
+     */
+    Optional<List<SoccerScoreDto>> fetchScores(List<String> eventIds);
+}
@@ -0,0 +1,65 @@
+package com.sporty.homework.event_publisher.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring over the live publisher nodes. Every node is placed on the
+ * ring at a number of virtual points, an event belongs to the first node point at or after
+ * the event's hash. When a node joins or leaves only the events next to its points move.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final List<String> nodeIds;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be positive");
+        }
+        this.nodeIds = nodeIds.stream().sorted().toList();
+        for (String nodeId : this.nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    /**
+     * @return the node owning the event, or null when the ring has no nodes
+     */
+    public String owner(String eventId) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(eventId));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    public List<String> nodeIds() {
+        return nodeIds;
+    }
+
+    public boolean contains(String nodeId) {
+        return nodeIds.contains(nodeId);
+    }
+
+    // FNV-1a with a 64-bit finalizer, String.hashCode clusters similar ids such as match-1, match-2
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,270 @@
+package com.sporty.homework.event_publisher.cluster;
+
+import com.sporty.homework.event_publisher.dao.EventDao;
+import com.sporty.homework.event_publisher.dao.NodeDao;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.enums.EventStatus;
+import com.sporty.homework.event_publisher.model.Event;
+import com.sporty.homework.event_publisher.scheduler.ScheduledJobService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spreads live events over the running publisher instances so every event is polled by
+ * exactly one of them. Each node renews a lease in {@code publisher_node} on every heartbeat
+ * and assigns events to the nodes with a valid lease through a consistent-hash ring, so a
+ * joining or dying node only moves its share of the events. A node that cannot renew its
+ * lease in time stops polling one heartbeat before the lease expires, since its events are taken
+ * over by the others as soon as it does.
+ * When ownership is disabled every event is owned locally.
+ */
+@Slf4j
+@Service
+public class EventOwnershipService {
+
+    private final NodeDao nodeDao;
+    private final EventDao eventDao;
+    private final ScheduledJobService scheduledJobService;
+    private final String nodeId;
+    private final ReentrantLock heartbeatLock = new ReentrantLock();
+    private volatile ConsistentHashRing ring;
+    private volatile long leaseValidUntilNanos;
+    private long lastReconcileNanos;
+    private boolean takeoversDeferred;
+
+    @Value("${cluster.ownership.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cluster.lease-ms:15000}")
+    private long leaseMs = 15000;
+
+    @Value("${cluster.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMs = 5000;
+
+    @Value("${cluster.ring.virtual-nodes:128}")
+    private int virtualNodes = 128;
+
+    @Value("${cluster.dead-node-retention-ms:3600000}")
+    private long deadNodeRetentionMs = 3600000;
+
+    @Value("${cluster.full-reconcile-interval-ms:30000}")
+    private long fullReconcileIntervalMs = 30000;
+
+    @Value("${scheduler.rehydration.batch-size:1000}")
+    private int reconcileBatchSize = 1000;
+
+    public EventOwnershipService(NodeDao nodeDao, EventDao eventDao, ScheduledJobService scheduledJobService,
+                                 @Value("${cluster.node-id:${HOSTNAME:}}") String nodeId,
+                                 MeterRegistry meterRegistry) {
+        this.nodeDao = nodeDao;
+        this.eventDao = eventDao;
+        this.scheduledJobService = scheduledJobService;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        Gauge.builder("cluster.nodes.live", this, service -> service.ring == null ? 0 : service.ring.nodeIds().size())
+                .description("Publisher nodes with a valid lease as seen by this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether this instance should poll the event
+     */
+    public boolean isOwnedLocally(String eventId) {
+        if (!enabled) {
+            return true;
+        }
+        ConsistentHashRing current = ring;
+        return current != null && leaseValid() && nodeId.equals(current.owner(eventId));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            renewLeaseAndReconcile();
+        } catch (Exception e) {
+            log.error("Heartbeat of publisher node {} failed - {}", nodeId, e.getMessage());
+        }
+        // Also after a renewal that took up most of the lease
+        if (ring == null || !leaseValid()) {
+            relinquishAll();
+        }
+    }
+
+    /**
+     * First heartbeat of this node on startup, failing when the lease cannot be taken.
+     */
+    public void join() {
+        renewLeaseAndReconcile();
+    }
+
+    private void renewLeaseAndReconcile() {
+        // The startup join and the scheduled heartbeat may overlap
+        heartbeatLock.lock();
+        try {
+            renewLeaseAndReconcileLocked();
+        } finally {
+            heartbeatLock.unlock();
+        }
+    }
+
+    private void renewLeaseAndReconcileLocked() {
+        long renewStartedAt = System.nanoTime();
+        nodeDao.renewLease(nodeId, leaseMs);
+        leaseValidUntilNanos = renewStartedAt + TimeUnit.MILLISECONDS.toNanos(leaseMs);
+
+        List<String> liveNodeIds = nodeDao.findLiveNodeIds();
+        ConsistentHashRing previous = ring;
+        ConsistentHashRing current = new ConsistentHashRing(liveNodeIds, virtualNodes);
+        boolean joining = previous == null;
+        if (joining) {
+            // On the first heartbeat the events of this node are still polled by the others
+            previous = new ConsistentHashRing(liveNodeIds.stream().filter(id -> !id.equals(nodeId)).toList(), virtualNodes);
+        }
+        boolean ringChanged = !previous.nodeIds().equals(current.nodeIds());
+        if (ringChanged) {
+            log.info("Publisher nodes changed from {} to {}", previous.nodeIds(), current.nodeIds());
+        }
+        ring = current;
+        // An unchanged ring moves no events, the live events are then only walked again for the
+        // takeovers deferred last time and, every so often, for status changes whose notification was missed
+        long now = System.nanoTime();
+        if (joining || ringChanged || takeoversDeferred
+                || now - lastReconcileNanos >= TimeUnit.MILLISECONDS.toNanos(fullReconcileIntervalMs)) {
+            takeoversDeferred = reconcile(previous, current) > 0;
+            lastReconcileNanos = now;
+        }
+
+        nodeDao.deleteExpiredNodes(deadNodeRetentionMs);
+    }
+
+    /**
+     * Starts the jobs of the live events this node owns and stops those it no longer owns or
+     * that are no longer live. An event moving away from a node that is still alive is taken
+     * over one heartbeat later, so the previous owner has let it go by then.
+     *
+     * @return number of events whose takeover was deferred to the next heartbeat
+     */
+    int reconcile(ConsistentHashRing previous, ConsistentHashRing current) {
+        Set<String> scheduled = scheduledJobService.getScheduledEventIds();
+        Set<String> live = new HashSet<>();
+        AtomicInteger acquired = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        AtomicInteger deferred = new AtomicInteger();
+
+        int liveEvents = eventDao.forEachLiveEventBatch(reconcileBatchSize, batch -> {
+            Map<String, EventPriority> acquisitions = new LinkedHashMap<>();
+            for (Event event : batch) {
+                String eventId = event.getEventId();
+                live.add(eventId);
+                boolean owned = nodeId.equals(current.owner(eventId));
+                if (owned && !scheduled.contains(eventId)) {
+                    String previousOwner = previous.owner(eventId);
+                    if (previousOwner == null || previousOwner.equals(nodeId) || !current.contains(previousOwner)) {
+                        acquisitions.put(eventId, event.getPriority() != null ? event.getPriority() : EventPriority.STANDARD);
+                    } else {
+                        deferred.incrementAndGet();
+                    }
+                } else if (!owned && scheduled.contains(eventId)) {
+                    scheduledJobService.stopJob(eventId);
+                    released.incrementAndGet();
+                }
+            }
+            // Registered in bulk, with staggered first polls
+            if (!acquisitions.isEmpty()) {
+                scheduledJobService.startJobs(acquisitions);
+                acquired.addAndGet(acquisitions.size());
+            }
+        });
+
+        // Events set NOT_LIVE through another node
+        for (String eventId : scheduled) {
+            if (!live.contains(eventId)) {
+                scheduledJobService.stopJob(eventId);
+                released.incrementAndGet();
+            }
+        }
+
+        if (acquired.get() > 0 || released.get() > 0 || deferred.get() > 0) {
+            log.info("Node {} acquired {} of {} live events, released {}, deferred {} until their previous owner lets go",
+                    nodeId, acquired.get(), liveEvents, released.get(), deferred.get());
+        }
+        return deferred.get();
+    }
+
+    /**
+     * Starts or stops the job of one event after its status changed, possibly through another
+     * node, so its owner does not wait for the next full reconcile.
+     */
+    public void reconcileEvent(String eventId) {
+        if (!enabled) {
+            return;
+        }
+        heartbeatLock.lock();
+        try {
+            Event event = eventDao.findByEventId(eventId);
+            boolean live = event != null && event.getStatus() == EventStatus.LIVE;
+            boolean owned = isOwnedLocally(eventId);
+            boolean running = scheduledJobService.isJobRunning(eventId);
+            if (live && owned && !running) {
+                scheduledJobService.startJob(eventId, event.getPriority() != null ? event.getPriority() : EventPriority.STANDARD);
+            } else if ((!live || !owned) && running) {
+                scheduledJobService.stopJob(eventId);
+            }
+        } finally {
+            heartbeatLock.unlock();
+        }
+    }
+
+    private void relinquishAll() {
+        Set<String> scheduled = scheduledJobService.getScheduledEventIds();
+        if (ring != null || !scheduled.isEmpty()) {
+            log.warn("Lease of publisher node {} is about to expire, stopping {} jobs", nodeId, scheduled.size());
+        }
+        ring = null;
+        scheduled.forEach(scheduledJobService::stopJob);
+    }
+
+    // The lease counts as gone one heartbeat before it expires: the next heartbeat could not renew
+    // it in time, and the other nodes take the events over as soon as it expires
+    private boolean leaseValid() {
+        return leaseValidUntilNanos - System.nanoTime() > TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMs);
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        // Lets the other nodes take over right away instead of waiting for the lease to expire
+        try {
+            nodeDao.deleteNode(nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to remove publisher node {} - {}", nodeId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sporty.homework.event_publisher.cluster;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on the {@code event_status} channel and reconciles the job of an event as soon as its
+ * status changes, so an event set LIVE or NOT_LIVE through another node is started or stopped
+ * by its owner right away instead of on the next full reconcile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cluster.ownership.enabled", havingValue = "true")
+public class EventStatusNotificationListener {
+
+    private static final String CHANNEL = "event_status";
+
+    private final EventOwnershipService eventOwnershipService;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${cluster.listener.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${cluster.listener.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    public EventStatusNotificationListener(EventOwnershipService eventOwnershipService) {
+        this.eventOwnershipService = eventOwnershipService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("event-status-listener").start(this::listen);
+        log.info("Started event status listener on channel: {}", CHANNEL);
+    }
+
+    private void listen() {
+        while (running) {
+            // A dedicated connection keeps the LISTEN session from pinning a pooled connection
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                // Changes made while disconnected are picked up by the periodic full reconcile
+                log.warn("Event status listener connection lost, reconnecting in {} ms - {}", reconnectDelayMs, e.getMessage());
+                sleep(reconnectDelayMs);
+            }
+        }
+    }
+
+    private void handle(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            return;
+        }
+        try {
+            eventOwnershipService.reconcileEvent(eventId);
+        } catch (Exception e) {
+            log.warn("Failed to reconcile event {} after a status change - {}", eventId, e.getMessage());
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+}
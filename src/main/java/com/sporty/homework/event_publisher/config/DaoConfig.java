@@ -2,10 +2,13 @@ package com.sporty.homework.event_publisher.config;
 
 import com.sporty.homework.event_publisher.dao.EventDao;
 import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.dao.NodeDao;
+import com.sporty.homework.event_publisher.dao.OutboxPartitionDao;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 
 import javax.sql.DataSource;
 
@@ -14,7 +17,8 @@ public class DaoConfig {
 
     @Bean
     public Jdbi jdbi(DataSource dataSource) {
-        Jdbi jdbi = Jdbi.create(dataSource);
+        // Let DAO calls join Spring-managed transactions instead of borrowing a second connection
+        Jdbi jdbi = Jdbi.create(new TransactionAwareDataSourceProxy(dataSource));
         jdbi.installPlugin(new SqlObjectPlugin());
         return jdbi;
     }
@@ -28,4 +32,14 @@ public class DaoConfig {
     public MessageDao messageDao(Jdbi jdbi) {
         return jdbi.onDemand(MessageDao.class);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public OutboxPartitionDao outboxPartitionDao(Jdbi jdbi) {
+        return jdbi.onDemand(OutboxPartitionDao.class);
+    }
+
+    @Bean
+    public NodeDao nodeDao(Jdbi jdbi) {
+        return jdbi.onDemand(NodeDao.class);
+    }
+}
@@ -18,17 +18,47 @@ public class KafkaConfig {
     @Value("${spring.kafka.producer.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${kafka.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${kafka.producer.exactly-once.enabled:false}")
+    private boolean exactlyOnceEnabled;
+
+    // Must be unique per running instance, otherwise instances fence each other's transactions
+    @Value("${kafka.producer.transaction-id-prefix:event-publisher-tx-}")
+    private String transactionIdPrefix;
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // Give the pipelined relay a short window to fill record batches
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+
+        if (!exactlyOnceEnabled) {
+            return new DefaultKafkaProducerFactory<>(configProps);
+        }
+
+        // Idempotent producer: broker-side dedupe of internal retries, ordering kept per partition
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(configProps);
+        factory.setTransactionIdPrefix(transactionIdPrefix);
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory());
+        // Plain send() calls outside executeInTransaction stay allowed on a transactional factory
+        template.setAllowNonTransactional(true);
+        return template;
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.sporty.homework.event_publisher.dto.EventDto;
 import com.sporty.homework.event_publisher.dto.CreateEventDto;
 import com.sporty.homework.event_publisher.dto.UpdateEventStatusDto;
 import com.sporty.homework.event_publisher.service.EventService;
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,7 +24,8 @@ public class EventController {
     @PostMapping
     public ResponseEntity<EventDto> addEvent(@RequestBody CreateEventDto createEventDto) {
         eventService.addEvent(createEventDto);
-        EventDto eventDto = new EventDto(createEventDto.eventId(), createEventDto.status());
+        EventDto eventDto = new EventDto(createEventDto.eventId(), createEventDto.status(),
+                createEventDto.priority() != null ? createEventDto.priority() : EventPriority.STANDARD);
         return ResponseEntity.ok(eventDto);
     }
 
@@ -40,7 +42,7 @@ public class EventController {
         
         try {
             // This will throw IllegalArgumentException if not a valid enum value
-            eventService.updateEventStatus(eventId, updateEventStatusDto.status());
+            eventService.updateEventStatus(eventId, updateEventStatusDto.status(), updateEventStatusDto.priority());
             return ResponseEntity.ok(Map.of("message", "Event status updated successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -56,4 +58,13 @@ public class EventController {
         }
         return ResponseEntity.ok(eventDto);
     }
+
+    @GetMapping("/{eventId}/poll-interval")
+    public ResponseEntity<Map<String, Object>> getPollInterval(@PathVariable String eventId) {
+        Long pollIntervalMs = eventService.findPollIntervalMs(eventId);
+        if (pollIntervalMs == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("eventId", eventId, "pollIntervalMs", pollIntervalMs));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.sporty.homework.event_publisher.controller;
+
+import com.sporty.homework.event_publisher.dto.ReplayRequestDto;
+import com.sporty.homework.event_publisher.service.OutboxReplayService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/outbox")
+public class OutboxAdminController {
+
+    private final OutboxReplayService outboxReplayService;
+
+    public OutboxAdminController(OutboxReplayService outboxReplayService) {
+        this.outboxReplayService = outboxReplayService;
+    }
+
+    /**
+     * Replays the PERMANENTLY_FAILED messages matching the filter through the relay. The replay
+     * runs in the background; the response reports how many messages matched when it started.
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> replay(@RequestBody(required = false) ReplayRequestDto replayRequestDto) {
+        ReplayRequestDto filter = replayRequestDto != null ? replayRequestDto : new ReplayRequestDto(null, null, null, null, null);
+
+        if (filter.createdFrom() != null && filter.createdTo() != null && !filter.createdFrom().isBefore(filter.createdTo())) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "createdFrom must be before createdTo"));
+        }
+        if (filter.fromId() != null && filter.toId() != null && filter.fromId() > filter.toId()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "fromId must not be greater than toId"));
+        }
+
+        long matched = outboxReplayService.countReplayable(filter);
+        if (matched == 0) {
+            return ResponseEntity.ok(Map.of("matched", 0L, "message", "No permanently failed messages match the filter"));
+        }
+        if (!outboxReplayService.startReplay(filter)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Another replay is still running"));
+        }
+        return ResponseEntity.accepted().body(Map.of("matched", matched, "message", "Replay started"));
+    }
+}
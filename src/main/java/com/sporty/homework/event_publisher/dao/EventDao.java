@@ -1,5 +1,6 @@
 package com.sporty.homework.event_publisher.dao;
 
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import com.sporty.homework.event_publisher.model.Event;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
@@ -7,16 +8,60 @@ import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface EventDao {
 
     @SqlUpdate("INSERT INTO event (event_id, event_status) VALUES (:eventId, :status)")
     void insertEvent(@Bind("eventId") String eventId, @Bind("status") EventStatus status);
 
+    @SqlUpdate("INSERT INTO event (event_id, event_status, priority) VALUES (:eventId, :status, :priority)")
+    void insertEvent(@Bind("eventId") String eventId, @Bind("status") EventStatus status, @Bind("priority") EventPriority priority);
+
     @SqlUpdate("UPDATE event SET event_status = :status WHERE event_id = :eventId")
     void updateEventStatus(@Bind("eventId") String eventId, @Bind("status") EventStatus status);
 
-    @SqlQuery("SELECT event_id, event_status AS status FROM event WHERE event_id = :eventId")
+    @SqlUpdate("UPDATE event SET priority = :priority WHERE event_id = :eventId")
+    void updateEventPriority(@Bind("eventId") String eventId, @Bind("priority") EventPriority priority);
+
+    @SqlQuery("SELECT event_id, event_status AS status, priority FROM event WHERE event_id = :eventId")
     @RegisterBeanMapper(Event.class)
     Event findByEventId(@Bind("eventId") String eventId);
-}
\ No newline at end of file
+
+    @SqlQuery("SELECT event_id, event_status AS status, priority FROM event WHERE event_status = 'LIVE'")
+    @RegisterBeanMapper(Event.class)
+    Stream<Event> streamLiveEvents(@FetchSize int fetchSize);
+
+    /**
+     * Reads the LIVE events through a server-side cursor and passes them to the consumer in
+     * batches as they arrive, so memory stays bounded however many events are live. The
+     * transaction is what makes the driver fetch from a cursor instead of loading every row.
+     *
+     * @return number of LIVE events read
+     */
+    @Transaction
+    default int forEachLiveEventBatch(int batchSize, Consumer<List<Event>> consumer) {
+        int count = 0;
+        List<Event> batch = new ArrayList<>(batchSize);
+        try (Stream<Event> events = streamLiveEvents(batchSize)) {
+            for (Event event : (Iterable<Event>) events::iterator) {
+                batch.add(event);
+                count++;
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+        return count;
+    }
+}
@@ -1,35 +1,90 @@
 package com.sporty.homework.event_publisher.dao;
 
+import com.sporty.homework.event_publisher.dto.ReplayRequestDto;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
 import com.sporty.homework.event_publisher.model.Message;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.BindMethods;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public interface MessageDao {
 
-    @SqlUpdate("INSERT INTO message_outbox (event_id, event_type, payload, status, created_at, retry_count) " +
-               "VALUES (:eventId, :eventType, :payload::jsonb, :status, :createdAt, :retryCount)")
+    // Rows the relay may send: PENDING ones, and SENDING ones whose publisher has not finished
+    // within a minute, well past its send timeout and quick retries, so it is taken to be gone
+    String RELAYABLE_PENDING = "(status = 'PENDING' OR (status = 'SENDING' AND last_attempt_at < LOCALTIMESTAMP - INTERVAL '1 minute')) ";
+
+    // Optional filters of a replay, a null filter matches every row
+    String REPLAY_FILTER = "status = 'PERMANENTLY_FAILED' " +
+                           "AND (CAST(:eventId AS VARCHAR) IS NULL OR event_id = :eventId) " +
+                           "AND (CAST(:createdFrom AS TIMESTAMP) IS NULL OR created_at >= :createdFrom) " +
+                           "AND (CAST(:createdTo AS TIMESTAMP) IS NULL OR created_at < :createdTo) " +
+                           "AND (CAST(:fromId AS BIGINT) IS NULL OR id >= :fromId) " +
+                           "AND (CAST(:toId AS BIGINT) IS NULL OR id <= :toId) ";
+
+    @SqlUpdate("INSERT INTO message_outbox (event_id, event_type, payload, status, created_at, retry_count, priority) " +
+               "VALUES (:eventId, :eventType, :payload::jsonb, :status, :createdAt, :retryCount, :priority)")
     @GetGeneratedKeys
     Long insertMessage(@BindBean Message message);
 
+    /**
+     * Inserts the messages as one JDBC batch in one transaction. With the driver's
+     * reWriteBatchedInserts option the batch is sent as multi-row INSERTs.
+     *
+     * @return generated ids, in the order of the messages
+     */
+    @SqlBatch("INSERT INTO message_outbox (event_id, event_type, payload, status, created_at, retry_count, priority) " +
+              "VALUES (:eventId, :eventType, :payload::jsonb, :status, :createdAt, :retryCount, :priority)")
+    @GetGeneratedKeys("id")
+    List<Long> insertMessages(@BindBean List<Message> messages);
+
+    // The updates by id below cannot prune partitions, since created_at is the partition key. Each one
+    // probes the (id, created_at) primary key index of every partition, one index lookup per day
+    // between the retention and the precreated days (about 16 with the defaults), not a table scan
     @SqlUpdate("UPDATE message_outbox SET status = :status, sent_at = :sentAt WHERE id = :id")
     void updateMessageStatus(@Bind("id") Long id, @Bind("status") MessageStatus status, @Bind("sentAt") LocalDateTime sentAt);
 
-    @SqlUpdate("UPDATE message_outbox SET status = :status, retry_count = retry_count + 1, last_attempt_at = :lastAttemptAt WHERE id = :id")
-    void markMessageAsFailed(@Bind("id") Long id, @Bind("status") MessageStatus status, @Bind("lastAttemptAt") LocalDateTime lastAttemptAt);
+    @SqlUpdate("UPDATE message_outbox SET status = :status, retry_count = retry_count + 1, last_attempt_at = :lastAttemptAt, " +
+               "next_attempt_at = :nextAttemptAt WHERE id = :id")
+    void markMessageAsFailed(@Bind("id") Long id, @Bind("status") MessageStatus status,
+                             @Bind("lastAttemptAt") LocalDateTime lastAttemptAt, @Bind("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Claims a PENDING row for a send by the caller. The relay claims rows with a row lock, so
+     * only one of them gets the row: an UPDATE waiting on the relay's lock sees the row SENT
+     * once the relay commits and matches nothing.
+     *
+     * @return false when the row is no longer PENDING, the caller must then not send it
+     */
+    @SqlUpdate("UPDATE message_outbox SET status = 'SENDING', last_attempt_at = LOCALTIMESTAMP WHERE id = :id AND status = 'PENDING'")
+    boolean claimForSend(@Bind("id") Long id);
+
+    /**
+     * Hands a row claimed with {@link #claimForSend} back to the relay without counting an attempt.
+     */
+    @SqlUpdate("UPDATE message_outbox SET status = 'PENDING' WHERE id = :id AND status = 'SENDING'")
+    void releaseSendClaim(@Bind("id") Long id);
 
-    @SqlQuery("SELECT * FROM message_outbox WHERE status = 'PENDING' ORDER BY created_at ASC")
+    // Higher priority tiers first, in creation order within a tier
+    @SqlQuery("SELECT * FROM message_outbox WHERE " + RELAYABLE_PENDING + "ORDER BY priority ASC, created_at ASC")
     @RegisterBeanMapper(Message.class)
     List<Message> findPendingMessages();
 
-    @SqlQuery("SELECT * FROM message_outbox WHERE status = 'FAILED' AND retry_count < 5 ORDER BY last_attempt_at ASC")
+    @SqlQuery("SELECT * FROM message_outbox WHERE status = 'FAILED' AND retry_count < 5 " +
+              "AND next_attempt_at <= LOCALTIMESTAMP ORDER BY priority ASC, next_attempt_at ASC")
     @RegisterBeanMapper(Message.class)
     List<Message> findFailedMessages();
     
@@ -37,4 +92,104 @@ public interface MessageDao {
     @RegisterBeanMapper(Message.class)
     List<Message> findMessagesByStatus(@Bind("status") MessageStatus status);
 
-}
\ No newline at end of file
+    /**
+     * Marks every PENDING or FAILED row of the given event types as SUPERSEDED when a newer row
+     * exists for the same event, so only the latest snapshot per event is relayed. Rows locked
+     * by a relay in flight are left alone.
+     *
+     * @return number of rows superseded
+     */
+    @SqlUpdate("WITH superseded AS (" +
+               "SELECT m.id FROM message_outbox m " +
+               "WHERE m.status IN ('PENDING', 'FAILED') AND m.event_type IN (<eventTypes>) " +
+               "AND EXISTS (SELECT 1 FROM message_outbox n WHERE n.event_id = m.event_id AND n.event_type = m.event_type " +
+               "AND n.status IN ('PENDING', 'SENDING', 'FAILED', 'SENT') AND n.id > m.id) " +
+               "FOR UPDATE SKIP LOCKED) " +
+               "UPDATE message_outbox SET status = 'SUPERSEDED', sent_at = :now WHERE id IN (SELECT id FROM superseded)")
+    int markSupersededMessages(@BindList("eventTypes") Collection<String> eventTypes, @Bind("now") LocalDateTime now);
+
+    /**
+     * Latest score written to the outbox for every LIVE event.
+     */
+    @SqlQuery("SELECT DISTINCT ON (m.event_id) m.event_id, m.payload->>'currentScore' AS current_score " +
+              "FROM message_outbox m JOIN event e ON e.event_id = m.event_id " +
+              "WHERE e.event_status = 'LIVE' AND m.event_type = 'EVENT_SCORE_UPDATE' AND m.status <> 'PERMANENTLY_FAILED' " +
+              "ORDER BY m.event_id, m.created_at DESC, m.id DESC")
+    @RegisterConstructorMapper(SoccerScoreDto.class)
+    List<SoccerScoreDto> findLatestScoresForLiveEvents();
+
+    /**
+     * Locks up to {@code limit} pending rows for the current transaction. Rows already
+     * locked by another relay instance are skipped instead of waited on.
+     */
+    @SqlQuery("SELECT * FROM message_outbox WHERE " + RELAYABLE_PENDING + "ORDER BY priority ASC, created_at ASC " +
+              "LIMIT :limit FOR UPDATE SKIP LOCKED")
+    @RegisterBeanMapper(Message.class)
+    List<Message> claimPendingMessages(@Bind("limit") int limit);
+
+    @SqlQuery("SELECT * FROM message_outbox WHERE status = 'FAILED' AND retry_count < 5 " +
+              "AND next_attempt_at <= LOCALTIMESTAMP ORDER BY priority ASC, next_attempt_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED")
+    @RegisterBeanMapper(Message.class)
+    List<Message> claimFailedMessages(@Bind("limit") int limit);
+
+    /**
+     * Claims a batch of pending messages and hands it to {@code relay} inside a single transaction.
+     * The relay must apply its status updates through the supplied DAO so they run on the
+     * same connection that holds the row locks.
+     *
+     * @return number of rows claimed
+     */
+    @Transaction
+    default int relayPendingBatch(int limit, BiConsumer<MessageDao, List<Message>> relay) {
+        List<Message> batch = claimPendingMessages(limit);
+        if (!batch.isEmpty()) {
+            relay.accept(this, batch);
+        }
+        return batch.size();
+    }
+
+    @Transaction
+    default int relayFailedBatch(int limit, BiConsumer<MessageDao, List<Message>> relay) {
+        List<Message> batch = claimFailedMessages(limit);
+        if (!batch.isEmpty()) {
+            relay.accept(this, batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Locks up to {@code limit} permanently failed rows that are not on the dead-letter topic yet.
+     */
+    @SqlQuery("SELECT * FROM message_outbox WHERE status = 'PERMANENTLY_FAILED' AND dead_lettered_at IS NULL " +
+              "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    @RegisterBeanMapper(Message.class)
+    List<Message> claimUndeadLetteredMessages(@Bind("limit") int limit);
+
+    @SqlUpdate("UPDATE message_outbox SET dead_lettered_at = :deadLetteredAt WHERE id IN (<ids>)")
+    void markDeadLettered(@BindList("ids") Collection<Long> ids, @Bind("deadLetteredAt") LocalDateTime deadLetteredAt);
+
+    @Transaction
+    default int deadLetterBatch(int limit, BiConsumer<MessageDao, List<Message>> deadLetter) {
+        List<Message> batch = claimUndeadLetteredMessages(limit);
+        if (!batch.isEmpty()) {
+            deadLetter.accept(this, batch);
+        }
+        return batch.size();
+    }
+
+    @SqlQuery("SELECT count(*) FROM message_outbox WHERE " + REPLAY_FILTER)
+    long countReplayableMessages(@BindMethods ReplayRequestDto filter);
+
+    /**
+     * Resets the next {@code limit} matching rows with an id above {@code afterId} to PENDING
+     * with a fresh retry budget, which wakes the relay through the notify trigger. Rows locked
+     * by a dead-letter run in flight are skipped.
+     *
+     * @return ids of the reset rows, in no particular order
+     */
+    @SqlQuery("UPDATE message_outbox SET status = 'PENDING', retry_count = 0, last_attempt_at = NULL, " +
+              "next_attempt_at = NULL, dead_lettered_at = NULL WHERE id IN (" +
+              "SELECT id FROM message_outbox WHERE " + REPLAY_FILTER + "AND id > :afterId " +
+              "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING id")
+    List<Long> resetForReplay(@BindMethods ReplayRequestDto filter, @Bind("afterId") long afterId, @Bind("limit") int limit);
+}
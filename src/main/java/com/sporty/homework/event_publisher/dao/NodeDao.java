@@ -0,0 +1,34 @@
+package com.sporty.homework.event_publisher.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import java.util.List;
+
+/**
+ * Heartbeat leases of the publisher nodes. Lease times come from the database clock, so the
+ * nodes never compare their own clocks with each other.
+ */
+public interface NodeDao {
+
+    @SqlUpdate("INSERT INTO publisher_node (node_id, heartbeat_at, lease_expires_at) " +
+               "VALUES (:nodeId, now(), now() + make_interval(secs => :leaseMs / 1000.0)) " +
+               "ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = EXCLUDED.heartbeat_at, " +
+               "lease_expires_at = EXCLUDED.lease_expires_at")
+    void renewLease(@Bind("nodeId") String nodeId, @Bind("leaseMs") long leaseMs);
+
+    @SqlQuery("SELECT node_id FROM publisher_node WHERE lease_expires_at > now() ORDER BY node_id")
+    List<String> findLiveNodeIds();
+
+    /**
+     * Removes nodes whose lease expired more than the grace period ago.
+     *
+     * @return number of nodes removed
+     */
+    @SqlUpdate("DELETE FROM publisher_node WHERE lease_expires_at < now() - make_interval(secs => :graceMs / 1000.0)")
+    int deleteExpiredNodes(@Bind("graceMs") long graceMs);
+
+    @SqlUpdate("DELETE FROM publisher_node WHERE node_id = :nodeId")
+    void deleteNode(@Bind("nodeId") String nodeId);
+}
@@ -0,0 +1,62 @@
+package com.sporty.homework.event_publisher.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OutboxPartitionDao {
+
+    @SqlQuery("SELECT create_message_outbox_partition(CAST(:day AS DATE))")
+    String createPartition(@Bind("day") LocalDate day);
+
+    @SqlQuery("SELECT c.relname FROM pg_inherits i " +
+              "JOIN pg_class c ON c.oid = i.inhrelid " +
+              "JOIN pg_class p ON p.oid = i.inhparent " +
+              "WHERE p.relname = 'message_outbox' ORDER BY c.relname")
+    List<String> findPartitionNames();
+
+    // A PERMANENTLY_FAILED row only holds its partition back until it has reached the dead-letter topic
+    @SqlQuery("SELECT EXISTS (SELECT 1 FROM <partition> WHERE status NOT IN ('SENT', 'SUPERSEDED') " +
+              "AND NOT (status = 'PERMANENTLY_FAILED' AND dead_lettered_at IS NOT NULL))")
+    boolean hasUnsentMessages(@Define("partition") String partition);
+
+    @SqlUpdate("ALTER TABLE message_outbox DETACH PARTITION <partition>")
+    void detachPartition(@Define("partition") String partition);
+
+    @SqlUpdate("DROP TABLE <partition>")
+    void dropPartition(@Define("partition") String partition);
+
+    // Detaching or dropping a partition needs this lock on the parent anyway, taking it before the
+    // partition's keeps the lock order of every query that reaches the partition through the parent
+    @SqlUpdate("LOCK TABLE ONLY message_outbox IN ACCESS EXCLUSIVE MODE")
+    void lockOutbox();
+
+    @SqlUpdate("LOCK TABLE <partition> IN ACCESS EXCLUSIVE MODE")
+    void lockPartition(@Define("partition") String partition);
+
+    /**
+     * Detaches or drops the partition unless it holds unsent messages. The check runs under the
+     * same locks as the DDL, so a replay cannot put a row of the partition back in between.
+     *
+     * @return whether the partition was retired
+     */
+    @Transaction
+    default boolean retirePartition(String partition, boolean detachOnly) {
+        lockOutbox();
+        lockPartition(partition);
+        if (hasUnsentMessages(partition)) {
+            return false;
+        }
+        if (detachOnly) {
+            detachPartition(partition);
+        } else {
+            dropPartition(partition);
+        }
+        return true;
+    }
+}
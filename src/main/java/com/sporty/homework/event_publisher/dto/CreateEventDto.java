@@ -1,5 +1,11 @@
 package com.sporty.homework.event_publisher.dto;
 
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 
-public record CreateEventDto(String eventId, EventStatus status) {}
\ No newline at end of file
+public record CreateEventDto(String eventId, EventStatus status, EventPriority priority) {
+
+    public CreateEventDto(String eventId, EventStatus status) {
+        this(eventId, status, null);
+    }
+}
\ No newline at end of file
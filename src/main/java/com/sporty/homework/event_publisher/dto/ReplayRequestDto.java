@@ -0,0 +1,9 @@
+package com.sporty.homework.event_publisher.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects PERMANENTLY_FAILED outbox rows to replay. Every filter is optional; the time window
+ * is on created_at with an exclusive end, the id range is inclusive.
+ */
+public record ReplayRequestDto(String eventId, LocalDateTime createdFrom, LocalDateTime createdTo, Long fromId, Long toId) {}
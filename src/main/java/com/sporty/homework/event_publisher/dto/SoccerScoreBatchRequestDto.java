@@ -0,0 +1,5 @@
+package com.sporty.homework.event_publisher.dto;
+
+import java.util.List;
+
+public record SoccerScoreBatchRequestDto(List<String> eventIds) {}
@@ -1,3 +1,24 @@
 package com.sporty.homework.event_publisher.dto;
 
-public record SoccerScoreDto(String eventId, String currentScore) {}
\ No newline at end of file
+import java.util.regex.Pattern;
+
+public record SoccerScoreDto(String eventId, String currentScore) {
+
+    // "X:Y" where X and Y are numbers
+    private static final Pattern SCORE_FORMAT = Pattern.compile("^\\d+:\\d+$");
+
+    /**
+     * The one score check shared by the polling jobs, the outbox and the score pipeline.
+     */
+    public static boolean isValid(String eventId, String currentScore) {
+        return isValidEventId(eventId) && isValidScore(currentScore);
+    }
+
+    public static boolean isValidEventId(String eventId) {
+        return eventId != null && !eventId.isBlank();
+    }
+
+    public static boolean isValidScore(String currentScore) {
+        return currentScore != null && SCORE_FORMAT.matcher(currentScore).matches();
+    }
+}
@@ -1,5 +1,11 @@
 package com.sporty.homework.event_publisher.dto;
 
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 
-public record UpdateEventStatusDto(EventStatus status) {}
\ No newline at end of file
+public record UpdateEventStatusDto(EventStatus status, EventPriority priority) {
+
+    public UpdateEventStatusDto(EventStatus status) {
+        this(status, null);
+    }
+}
\ No newline at end of file
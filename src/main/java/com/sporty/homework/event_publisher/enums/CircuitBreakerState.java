@@ -0,0 +1,7 @@
+package com.sporty.homework.event_publisher.enums;
+
+public enum CircuitBreakerState {
+    CLOSED,    // sends go through, consecutive failures are counted
+    OPEN,      // sends are skipped until the open duration has passed
+    HALF_OPEN  // a single trial call probes whether the broker is back
+}
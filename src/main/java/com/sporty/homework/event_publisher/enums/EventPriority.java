@@ -0,0 +1,18 @@
+package com.sporty.homework.event_publisher.enums;
+
+public enum EventPriority {
+    PREMIUM(0),
+    STANDARD(1),
+    LOW(2);
+
+    // Lower ranks are polled and relayed first
+    private final int rank;
+
+    EventPriority(int rank) {
+        this.rank = rank;
+    }
+
+    public int rank() {
+        return rank;
+    }
+}
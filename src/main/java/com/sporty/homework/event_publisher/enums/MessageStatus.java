@@ -2,7 +2,9 @@ package com.sporty.homework.event_publisher.enums;
 
 public enum MessageStatus {
     PENDING,
+    SENDING,
     SENT,
     FAILED,
-    PERMANENTLY_FAILED
+    PERMANENTLY_FAILED,
+    SUPERSEDED
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.sporty.homework.event_publisher.enums;
+
+public enum OutboxPublishMode {
+    INLINE,       // send to Kafka inside the outbox transaction
+    AFTER_COMMIT, // send asynchronously once the outbox row is committed
+    RELAY         // only persist the row, the outbox relay publishes it
+}
@@ -0,0 +1,23 @@
+package com.sporty.homework.event_publisher.enums;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+public enum PipelineWaitStrategy {
+    BLOCKING,  // parks idle stages on a lock, lowest CPU use
+    SLEEPING,  // spins, yields, then sleeps briefly, good for background stages
+    YIELDING,  // spins and yields, low latency at the cost of a busy core per stage
+    BUSY_SPIN; // lowest latency, needs a dedicated core per stage
+
+    public WaitStrategy create() {
+        return switch (this) {
+            case BLOCKING -> new BlockingWaitStrategy();
+            case SLEEPING -> new SleepingWaitStrategy();
+            case YIELDING -> new YieldingWaitStrategy();
+            case BUSY_SPIN -> new BusySpinWaitStrategy();
+        };
+    }
+}
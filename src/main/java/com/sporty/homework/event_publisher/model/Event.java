@@ -1,5 +1,6 @@
 package com.sporty.homework.event_publisher.model;
 
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,4 +10,5 @@ import lombok.NoArgsConstructor;
 public class Event {
     private String eventId;
     private EventStatus status;
+    private EventPriority priority;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.sporty.homework.event_publisher.model;
 
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,9 +14,12 @@ public class Message {
     private String eventId;
     private String eventType;
     private String payload;
-    private MessageStatus status; // PENDING, SENT, FAILED, PERMANENTLY_FAILED
+    private MessageStatus status; // PENDING, SENDING, SENT, FAILED, PERMANENTLY_FAILED, SUPERSEDED
     private LocalDateTime createdAt;
     private LocalDateTime sentAt;
     private int retryCount;
     private LocalDateTime lastAttemptAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime deadLetteredAt; // set once a permanently failed row is on the dead-letter topic
+    private int priority = EventPriority.STANDARD.rank(); // rank of the event's priority tier
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.sporty.homework.event_publisher.pipeline;
+
+import com.sporty.homework.event_publisher.dto.EventScoreMessageDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.model.Message;
+
+/**
+ * Preallocated ring buffer slot carrying one score through the pipeline stages. The DTO and
+ * outbox message are created once per slot and overwritten by every score that passes
+ * through it.
+ */
+final class ScoreEvent {
+
+    String eventId;
+    String currentScore;
+    EventPriority priority;
+    // Set by the validate stage, later stages skip rejected scores
+    boolean accepted;
+    // Set by the persist stage once the outbox row is committed
+    boolean persisted;
+    final EventScoreMessageDto scoreMessage = new EventScoreMessageDto();
+    final Message message = new Message();
+
+    void reset(String eventId, String currentScore, EventPriority priority) {
+        this.eventId = eventId;
+        this.currentScore = currentScore;
+        this.priority = priority;
+        this.accepted = false;
+        this.persisted = false;
+    }
+
+    void clear() {
+        eventId = null;
+        currentScore = null;
+        message.setId(null);
+        message.setPayload(null);
+    }
+}
@@ -0,0 +1,272 @@
+package com.sporty.homework.event_publisher.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.sporty.homework.event_publisher.dto.EventScoreMessageDto;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.enums.PipelineWaitStrategy;
+import com.sporty.homework.event_publisher.model.Message;
+import com.sporty.homework.event_publisher.service.LastPublishedScoreCache;
+import com.sporty.homework.event_publisher.service.OutboxService;
+import com.sporty.homework.event_publisher.service.OutboxWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Staged score pipeline on a preallocated ring buffer. Poll and push threads only claim a
+ * slot; dedicated stage threads then validate and dedupe, serialize, persist and publish in
+ * turn. Every stage consumes whatever has accumulated since its last run as one batch, so the
+ * persist stage writes a whole batch per outbox transaction under load, and slots reuse their
+ * DTO and message objects instead of allocating new ones per score.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "score.pipeline.enabled", havingValue = "true")
+public class ScorePipeline {
+
+    private static final EventTranslatorThreeArg<ScoreEvent, String, String, EventPriority> TRANSLATOR =
+            (event, sequence, eventId, currentScore, priority) -> event.reset(eventId, currentScore, priority);
+
+    private final OutboxWriter outboxWriter;
+    private final LastPublishedScoreCache scoreCache;
+    private final OutboxService outboxService;
+    private final ObjectWriter payloadWriter;
+    private final int maxPersistBatchSize;
+    private final Disruptor<ScoreEvent> disruptor;
+    private final RingBuffer<ScoreEvent> ringBuffer;
+    private final Counter duplicateScores;
+    private final Counter rejectedScores;
+    private final Counter failedScores;
+
+    public ScorePipeline(OutboxWriter outboxWriter, LastPublishedScoreCache scoreCache, OutboxService outboxService,
+                         ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${score.pipeline.ring-size:8192}") int ringSize,
+                         @Value("${score.pipeline.wait-strategy:BLOCKING}") PipelineWaitStrategy waitStrategy,
+                         @Value("${score.pipeline.persist-batch-size:500}") int maxPersistBatchSize) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two");
+        }
+        this.outboxWriter = outboxWriter;
+        this.scoreCache = scoreCache;
+        this.outboxService = outboxService;
+        this.payloadWriter = objectMapper.writerFor(EventScoreMessageDto.class);
+        this.maxPersistBatchSize = maxPersistBatchSize;
+        this.duplicateScores = Counter.builder("score.pipeline.duplicates")
+                .description("Scores dropped because they were already published")
+                .register(meterRegistry);
+        this.rejectedScores = Counter.builder("score.pipeline.rejected")
+                .description("Scores dropped because they failed validation")
+                .register(meterRegistry);
+        this.failedScores = Counter.builder("score.pipeline.failed")
+                .description("Scores that could not be serialized or persisted")
+                .register(meterRegistry);
+
+        // Stage threads are platform threads, spinning wait strategies must not occupy a virtual thread carrier
+        this.disruptor = new Disruptor<>(ScoreEvent::new, ringSize,
+                Thread.ofPlatform().name("score-pipeline-", 0).daemon(true).factory(),
+                ProducerType.MULTI, waitStrategy.create());
+        disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+
+        ValidateStage validate = new ValidateStage();
+        SerializeStage serialize = new SerializeStage();
+        PersistStage persist = new PersistStage();
+        PublishStage publish = new PublishStage();
+        disruptor.handleEventsWith(validate).then(serialize).then(persist).then(publish);
+        this.ringBuffer = disruptor.start();
+
+        // Depth of a stage is how far it trails the stage before it, the first stage trails the producers
+        registerDepthGauge(meterRegistry, "validate", ringBuffer::getCursor, validate);
+        registerDepthGauge(meterRegistry, "serialize", () -> disruptor.getSequenceValueFor(validate), serialize);
+        registerDepthGauge(meterRegistry, "persist", () -> disruptor.getSequenceValueFor(serialize), persist);
+        registerDepthGauge(meterRegistry, "publish", () -> disruptor.getSequenceValueFor(persist), publish);
+        Gauge.builder("score.pipeline.remaining-capacity", ringBuffer, RingBuffer::remainingCapacity)
+                .description("Free slots in the score pipeline ring buffer")
+                .register(meterRegistry);
+    }
+
+    private void registerDepthGauge(MeterRegistry meterRegistry, String stage, LongSupplier upstream, EventHandler<ScoreEvent> handler) {
+        Gauge.builder("score.pipeline.queue.depth", () -> upstream.getAsLong() - disruptor.getSequenceValueFor(handler))
+                .tag("stage", stage)
+                .description("Scores waiting for a pipeline stage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands a fetched score to the pipeline. Blocks while the ring buffer is full, so a slow
+     * database pushes back on the score jobs.
+     */
+    public void submit(String eventId, String currentScore, EventPriority priority) {
+        ringBuffer.publishEvent(TRANSLATOR, eventId, currentScore, priority);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            // Lets the stages finish the scores already in the ring
+            disruptor.shutdown(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Score pipeline did not drain in time, halting it");
+            disruptor.halt();
+        }
+    }
+
+    /**
+     * Drops invalid scores and scores that were already published. The stage is single
+     * threaded and claims a score in the cache as soon as it accepts it, so a push and a poll
+     * of the same change never both get through.
+     */
+    private final class ValidateStage implements EventHandler<ScoreEvent> {
+
+        @Override
+        public void onEvent(ScoreEvent event, long sequence, boolean endOfBatch) {
+            if (!SoccerScoreDto.isValid(event.eventId, event.currentScore)) {
+                rejectedScores.increment();
+                return;
+            }
+            if (!scoreCache.shouldPublish(event.eventId, event.currentScore)) {
+                duplicateScores.increment();
+                return;
+            }
+            scoreCache.recordPublished(event.eventId, event.currentScore);
+            event.accepted = true;
+        }
+    }
+
+    private final class SerializeStage implements EventHandler<ScoreEvent> {
+
+        @Override
+        public void onEvent(ScoreEvent event, long sequence, boolean endOfBatch) {
+            if (!event.accepted) {
+                return;
+            }
+            try {
+                event.scoreMessage.setEventId(event.eventId);
+                event.scoreMessage.setCurrentScore(event.currentScore);
+
+                Message message = event.message;
+                message.setId(null);
+                message.setEventId(event.eventId);
+                message.setEventType(OutboxService.EVENT_SCORE_UPDATE);
+                message.setPayload(payloadWriter.writeValueAsString(event.scoreMessage));
+                message.setStatus(MessageStatus.PENDING);
+                message.setCreatedAt(LocalDateTime.now());
+                message.setRetryCount(0);
+                message.setPriority(event.priority.rank());
+            } catch (Exception e) {
+                log.error("Error serializing score for event: {}", event.eventId, e);
+                reject(event);
+            }
+        }
+    }
+
+    /**
+     * Writes the accepted scores of a batch in one outbox transaction. The batch is flushed at
+     * the end of each ring buffer batch, so slots are never referenced after the stage has
+     * moved past them.
+     */
+    private final class PersistStage implements EventHandler<ScoreEvent> {
+
+        private final List<ScoreEvent> batch = new ArrayList<>();
+        private final List<Message> messages = new ArrayList<>();
+
+        @Override
+        public void onEvent(ScoreEvent event, long sequence, boolean endOfBatch) {
+            if (event.accepted) {
+                batch.add(event);
+                messages.add(event.message);
+            }
+            if (endOfBatch || batch.size() >= maxPersistBatchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                // Through the writer, so with group commit enabled the batch shares transactions with other writers
+                List<CompletableFuture<Long>> ids = outboxWriter.insertAll(messages);
+                for (int i = 0; i < batch.size(); i++) {
+                    ScoreEvent event = batch.get(i);
+                    try {
+                        event.message.setId(ids.get(i).join());
+                        event.persisted = true;
+                    } catch (Exception e) {
+                        // Only this row's group commit failed
+                        log.error("Error persisting score of event {} to the outbox", event.eventId, e);
+                        reject(event);
+                    }
+                }
+                log.debug("Persisted {} scores to the outbox", batch.size());
+            } catch (Exception e) {
+                log.error("Error persisting {} scores to the outbox", batch.size(), e);
+                batch.forEach(ScorePipeline.this::reject);
+            } finally {
+                batch.clear();
+                messages.clear();
+            }
+        }
+    }
+
+    private final class PublishStage implements EventHandler<ScoreEvent> {
+
+        @Override
+        public void onEvent(ScoreEvent event, long sequence, boolean endOfBatch) {
+            try {
+                if (event.persisted) {
+                    outboxService.publishCommittedMessage(event.eventId, event.message.getPayload(), event.message.getId());
+                }
+            } finally {
+                event.clear();
+            }
+        }
+    }
+
+    private void reject(ScoreEvent event) {
+        failedScores.increment();
+        event.accepted = false;
+        // The next poll of the event republishes the score
+        scoreCache.evict(event.eventId);
+    }
+
+    private static final class LoggingExceptionHandler implements ExceptionHandler<ScoreEvent> {
+
+        @Override
+        public void handleEventException(Throwable ex, long sequence, ScoreEvent event) {
+            log.error("Error in score pipeline for event: {}", event.eventId, ex);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            log.error("Error starting score pipeline", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            log.error("Error stopping score pipeline", ex);
+        }
+    }
+}
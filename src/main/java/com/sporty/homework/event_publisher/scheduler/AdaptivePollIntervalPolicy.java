@@ -0,0 +1,60 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Adapts an event's poll interval to how often its score changes. A change drops the interval
+ * to the minimum, every unchanged poll backs it off towards the maximum of the event's priority
+ * tier, so each tier keeps its own polling SLO.
+ */
+@Component
+public class AdaptivePollIntervalPolicy {
+
+    private final long minIntervalMs;
+    private final double backoffMultiplier;
+    private final Map<EventPriority, TierIntervals> tiers = new EnumMap<>(EventPriority.class);
+
+    public AdaptivePollIntervalPolicy(@Value("${score.poll.interval-ms:10000}") long initialIntervalMs,
+                                      @Value("${score.poll.min-interval-ms:10000}") long minIntervalMs,
+                                      @Value("${score.poll.max-interval-ms:10000}") long maxIntervalMs,
+                                      @Value("${score.poll.backoff-multiplier:1.5}") double backoffMultiplier,
+                                      @Value("${score.poll.premium.interval-ms:${score.poll.interval-ms:10000}}") long premiumIntervalMs,
+                                      @Value("${score.poll.premium.max-interval-ms:${score.poll.max-interval-ms:10000}}") long premiumMaxIntervalMs,
+                                      @Value("${score.poll.low.interval-ms:${score.poll.interval-ms:10000}}") long lowIntervalMs,
+                                      @Value("${score.poll.low.max-interval-ms:${score.poll.max-interval-ms:10000}}") long lowMaxIntervalMs) {
+        this.minIntervalMs = minIntervalMs;
+        this.backoffMultiplier = backoffMultiplier;
+        tiers.put(EventPriority.PREMIUM, tierIntervals(premiumIntervalMs, premiumMaxIntervalMs));
+        tiers.put(EventPriority.STANDARD, tierIntervals(initialIntervalMs, maxIntervalMs));
+        tiers.put(EventPriority.LOW, tierIntervals(lowIntervalMs, lowMaxIntervalMs));
+    }
+
+    private TierIntervals tierIntervals(long initialIntervalMs, long maxIntervalMs) {
+        if (minIntervalMs <= 0 || minIntervalMs > maxIntervalMs) {
+            throw new IllegalArgumentException("Poll interval bounds must satisfy 0 < min <= max");
+        }
+        return new TierIntervals(Math.max(minIntervalMs, Math.min(maxIntervalMs, initialIntervalMs)), maxIntervalMs);
+    }
+
+    /**
+     * Interval of an event of the given tier that has just gone LIVE.
+     */
+    public long initialIntervalMs(EventPriority priority) {
+        return tiers.get(priority).initialIntervalMs();
+    }
+
+    public long nextIntervalMs(long currentIntervalMs, boolean scoreChanged, EventPriority priority) {
+        if (scoreChanged) {
+            return minIntervalMs;
+        }
+        long maxIntervalMs = tiers.get(priority).maxIntervalMs();
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, Math.round(currentIntervalMs * backoffMultiplier)));
+    }
+
+    private record TierIntervals(long initialIntervalMs, long maxIntervalMs) {}
+}
@@ -0,0 +1,258 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of periodic jobs. Scheduling and cancelling are O(1):
+ * new timeouts are queued and placed into a slot by the worker thread, cancelled ones are
+ * dropped lazily when their slot comes around. On every tick the expired jobs of the current
+ * slot are dispatched onto virtual threads, so a slow job never delays the wheel. Keyed jobs
+ * that share a batch handler and expire in the same tick are dispatched as one batch.
+ */
+@Slf4j
+@Component
+public class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] slots;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeTimeouts = new AtomicInteger();
+    private final ExecutorService dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer tickDrift;
+    private final long startNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(@Value("${scheduler.wheel.tick-ms:100}") long tickMs,
+                             @Value("${scheduler.wheel.size:512}") int wheelSize,
+                             MeterRegistry meterRegistry) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = size - 1;
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.tickDrift = Timer.builder("scheduler.wheel.tick.drift")
+                .description("Delay between the planned and the actual start of a wheel tick")
+                .register(meterRegistry);
+        Gauge.builder("scheduler.wheel.timeouts", activeTimeouts, AtomicInteger::get)
+                .description("Jobs currently scheduled on the timing wheel")
+                .register(meterRegistry);
+        this.startNanos = System.nanoTime();
+        this.worker = Thread.ofPlatform().name("timing-wheel").daemon(true).start(this::runWheel);
+    }
+
+    /**
+     * Runs the task after the initial delay and then once every period until the returned
+     * timeout is cancelled.
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, Duration initialDelay, Duration period) {
+        return add(new Timeout(task, null, null, deadlineAfter(initialDelay), positiveNanos(period)));
+    }
+
+    /**
+     * Like {@link #scheduleAtFixedRate(Runnable, Duration, Duration)}, but instead of running a
+     * task per job, the keys of all jobs sharing the same handler instance that expire in the
+     * same tick are passed to the handler in a single call.
+     */
+    @SuppressWarnings("unchecked")
+    public <K> Timeout scheduleAtFixedRate(K key, Consumer<List<K>> batchHandler, Duration initialDelay, Duration period) {
+        Consumer<List<Object>> handler = (Consumer<List<Object>>) (Consumer<?>) batchHandler;
+        return add(new Timeout(null, key, handler, deadlineAfter(initialDelay), positiveNanos(period)));
+    }
+
+    private long deadlineAfter(Duration delay) {
+        return System.nanoTime() - startNanos + delay.toNanos();
+    }
+
+    private static long positiveNanos(Duration period) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        return period.toNanos();
+    }
+
+    private Timeout add(Timeout timeout) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel has been stopped");
+        }
+        activeTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void runWheel() {
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            tickDrift.record(-sleepNanos, TimeUnit.NANOSECONDS);
+
+            try {
+                transferNewTimeouts();
+                expireSlot(slots[(int) (tick & mask)]);
+            } catch (Exception e) {
+                log.error("Error processing timing wheel tick {}", tick, e);
+            }
+            tick++;
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            place(timeout, tick);
+        }
+    }
+
+    // minTick is the first tick whose slot has not been processed yet
+    private void place(Timeout timeout, long minTick) {
+        long expiryTick = Math.max(timeout.deadline / tickNanos, minTick);
+        timeout.remainingRounds = (expiryTick - minTick) / slots.length;
+        slots[(int) (expiryTick & mask)].add(timeout);
+    }
+
+    private void expireSlot(Queue<Timeout> slot) {
+        List<Timeout> expired = new ArrayList<>();
+        Iterator<Timeout> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                expired.add(timeout);
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+
+        // Higher priority jobs are dispatched first, and come first within their batch
+        expired.sort(Comparator.comparingInt(timeout -> timeout.priority));
+        Map<Consumer<List<Object>>, List<Object>> batches = new IdentityHashMap<>();
+        for (Timeout timeout : expired) {
+            if (timeout.batchHandler != null) {
+                batches.computeIfAbsent(timeout.batchHandler, handler -> new ArrayList<>()).add(timeout.key);
+            } else {
+                dispatch(timeout.task);
+            }
+        }
+        batches.forEach((handler, keys) -> dispatch(() -> handler.accept(keys)));
+
+        for (Timeout timeout : expired) {
+            timeout.deadline += timeout.periodNanos;
+            if (!timeout.isCancelled()) {
+                place(timeout, tick + 1);
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Timing wheel dispatch rejected, executor is shutting down");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        dispatchExecutor.shutdown();
+    }
+
+    /**
+     * Handle of a job scheduled on the wheel.
+     */
+    public final class Timeout {
+
+        private final Runnable task;
+        private final Object key;
+        private final Consumer<List<Object>> batchHandler;
+        private volatile long periodNanos;
+        private volatile int priority;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        // Only touched by the wheel worker once the timeout has been transferred
+        private long deadline;
+        private long remainingRounds;
+
+        private Timeout(Runnable task, Object key, Consumer<List<Object>> batchHandler, long deadline, long periodNanos) {
+            this.task = task;
+            this.key = key;
+            this.batchHandler = batchHandler;
+            this.deadline = deadline;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * Changes the period, effective from the run after the next one.
+         */
+        public void setPeriod(Duration period) {
+            periodNanos = positiveNanos(period);
+        }
+
+        /**
+         * Jobs expiring in the same tick are dispatched in ascending priority order.
+         */
+        public void setPriority(int priority) {
+            this.priority = priority;
+        }
+
+        public Duration getPeriod() {
+            return Duration.ofNanos(periodNanos);
+        }
+
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                activeTimeouts.decrementAndGet();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Spreads event poll phases evenly over the poll interval. The interval is split into phase
+ * buckets; an event starts probing at a bucket derived from its id hash and takes the first
+ * one that is not above the average load, so phases are deterministic but no bucket ever holds
+ * more than one event over any other. When events leave, {@link #rebalance()} moves events out
+ * of the fullest bucket until the spread is back to at most one.
+ */
+@Component
+public class PhaseAllocator {
+
+    private final int[] load;
+    private final Set<String>[] members;
+    private final Map<String, Integer> assignments = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public PhaseAllocator(@Value("${scheduler.phase.buckets:100}") int buckets, MeterRegistry meterRegistry) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Phase bucket count must be positive");
+        }
+        this.load = new int[buckets];
+        this.members = new Set[buckets];
+        for (int i = 0; i < buckets; i++) {
+            members[i] = new LinkedHashSet<>();
+        }
+        Gauge.builder("scheduler.phase.imbalance", this, PhaseAllocator::imbalance)
+                .description("Events in the fullest phase bucket minus events in the emptiest one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the phase bucket of the event, assigning one if it has none yet
+     */
+    public synchronized int assign(String eventId) {
+        Integer assigned = assignments.get(eventId);
+        if (assigned != null) {
+            return assigned;
+        }
+        int capacity = (assignments.size() + load.length) / load.length; // ceil((n + 1) / buckets)
+        int preferred = preferredBucket(eventId);
+        int bucket = preferred;
+        for (int probe = 0; probe < load.length; probe++) {
+            int candidate = (preferred + probe) % load.length;
+            if (load[candidate] < capacity) {
+                bucket = candidate;
+                break;
+            }
+        }
+        place(eventId, bucket);
+        return bucket;
+    }
+
+    public synchronized void release(String eventId) {
+        Integer bucket = assignments.remove(eventId);
+        if (bucket != null) {
+            load[bucket]--;
+            members[bucket].remove(eventId);
+        }
+    }
+
+    /**
+     * Moves one event from the fullest to the emptiest bucket when they differ by more than one.
+     *
+     * @return the moved event and its new bucket, or empty when the phases are balanced
+     */
+    public synchronized Optional<Move> rebalance() {
+        int fullest = 0;
+        int emptiest = 0;
+        for (int i = 1; i < load.length; i++) {
+            if (load[i] > load[fullest]) {
+                fullest = i;
+            }
+            if (load[i] < load[emptiest]) {
+                emptiest = i;
+            }
+        }
+        if (load[fullest] - load[emptiest] <= 1) {
+            return Optional.empty();
+        }
+
+        String eventId = members[fullest].iterator().next();
+        release(eventId);
+        place(eventId, emptiest);
+        return Optional.of(new Move(eventId, emptiest));
+    }
+
+    /**
+     * @return offset of the bucket's phase within the given interval
+     */
+    public long phaseOffsetMs(int bucket, long intervalMs) {
+        return bucket * intervalMs / load.length;
+    }
+
+    synchronized int imbalance() {
+        int max = Integer.MIN_VALUE;
+        int min = Integer.MAX_VALUE;
+        for (int bucketLoad : load) {
+            max = Math.max(max, bucketLoad);
+            min = Math.min(min, bucketLoad);
+        }
+        return max - min;
+    }
+
+    private void place(String eventId, int bucket) {
+        assignments.put(eventId, bucket);
+        load[bucket]++;
+        members[bucket].add(eventId);
+    }
+
+    private int preferredBucket(String eventId) {
+        // Mix the string hash so similar ids such as match-1, match-2 do not land in neighbouring buckets
+        int hash = eventId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), load.length);
+    }
+
+    public record Move(String eventId, int bucket) {}
+}
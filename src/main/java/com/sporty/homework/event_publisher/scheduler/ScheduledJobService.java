@@ -1,131 +1,566 @@
 package com.sporty.homework.event_publisher.scheduler;
 
+import com.sporty.homework.event_publisher.client.ScoreClient;
 import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.pipeline.ScorePipeline;
+import com.sporty.homework.event_publisher.service.LastPublishedScoreCache;
 import com.sporty.homework.event_publisher.service.OutboxService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class ScheduledJobService {
 
-    private final Map<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
-    private final ExecutorService virtualThreadExecutor;
-    private final TaskScheduler taskScheduler;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final Map<String, EventJob> scheduledJobs = new ConcurrentHashMap<>();
+    // Serializes starting and stopping jobs, including a whole startJobs batch; a lock rather than
+    // synchronized, since these run on virtual threads too
+    private final ReentrantLock jobsLock = new ReentrantLock();
+    private final HashedTimingWheel timingWheel;
+    private final AdaptivePollIntervalPolicy pollIntervalPolicy;
+    private final PhaseAllocator phaseAllocator;
+    // One handler instance, so the wheel groups all events due in the same tick
+    private final Consumer<List<String>> batchPoll = this::pollScores;
+    private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScoreClient scoreClient;
     private final OutboxService outboxService;
-    private static final String THREAD_NAME_PREFIX = "event-job-";
+    private final LastPublishedScoreCache scoreCache;
+    // Null when scores are written to the outbox on the job's own thread
+    private final ScorePipeline scorePipeline;
+    private final AtomicInteger inFlightFetches = new AtomicInteger();
+    private final Counter skippedTicks;
+    private final Counter shedTicks;
+    private final Counter stalePolls;
+    // Concurrent upstream calls each tier may start, by tier rank; null when unlimited
+    private int[] fetchLimits;
 
-    @Value("${score.endpoint.url:http://localhost:8081}")
-    private String baseUrl;
+    @Value("${score.fetch.max-concurrent:0}")
+    private int maxConcurrentFetches;
 
-    public ScheduledJobService(OutboxService outboxService) {
+    // Share of the fetch budget each tier leaves to the tiers above it
+    @Value("${score.fetch.tier-reserve-percent:20}")
+    private int tierReservePercent = 20;
+
+    // Spread event phases over the interval instead of starting every event one second from now
+    @Value("${scheduler.phase.stagger-enabled:false}")
+    private boolean phaseStaggerEnabled;
+
+    @Value("${score.fetch.batch-enabled:false}")
+    private boolean batchFetchEnabled;
+
+    @Value("${score.fetch.batch-size:500}")
+    private int batchFetchSize = 500;
+
+    @Value("${score.fetch.bulk-retry-interval-ms:300000}")
+    private long bulkRouteRetryIntervalMs = 300000;
+
+    private volatile long bulkRouteUnavailableUntil;
+
+    public ScheduledJobService(OutboxService outboxService, LastPublishedScoreCache scoreCache,
+                               HashedTimingWheel timingWheel, ScoreClient scoreClient,
+                               AdaptivePollIntervalPolicy pollIntervalPolicy, PhaseAllocator phaseAllocator,
+                               Optional<ScorePipeline> scorePipeline, MeterRegistry meterRegistry) {
         this.outboxService = outboxService;
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(2);
-        scheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
-        scheduler.initialize();
-        this.taskScheduler = scheduler;
-        this.virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.scorePipeline = scorePipeline.orElse(null);
+        this.scoreCache = scoreCache;
+        this.timingWheel = timingWheel;
+        this.scoreClient = scoreClient;
+        this.pollIntervalPolicy = pollIntervalPolicy;
+        this.phaseAllocator = phaseAllocator;
+        this.skippedTicks = Counter.builder("score.fetch.ticks.skipped")
+                .description("Polls skipped because the previous poll of the event was still running")
+                .register(meterRegistry);
+        this.shedTicks = Counter.builder("score.fetch.ticks.shed")
+                .description("Polls dropped because the concurrent fetch budget was exhausted")
+                .register(meterRegistry);
+        this.stalePolls = Counter.builder("score.fetch.polls.stale")
+                .description("Polled scores dropped because a newer score was pushed while they were fetched")
+                .register(meterRegistry);
+        Gauge.builder("score.fetch.in-flight", inFlightFetches, AtomicInteger::get)
+                .description("Upstream score fetches currently running")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void initFetchBudget() {
+        if (maxConcurrentFetches <= 0) {
+            return;
+        }
+        if (tierReservePercent < 0 || tierReservePercent > 100) {
+            throw new IllegalArgumentException("Tier reserve must be a percentage");
+        }
+        // PREMIUM may use the whole budget, every lower tier stops short of it by one more reserve
+        fetchLimits = new int[EventPriority.values().length];
+        for (EventPriority priority : EventPriority.values()) {
+            int reserved = maxConcurrentFetches * tierReservePercent * priority.rank() / 100;
+            fetchLimits[priority.rank()] = Math.max(1, maxConcurrentFetches - reserved);
+        }
     }
 
     public void startJob(String eventId) {
-        // Stop any existing job for this event
-        stopJob(eventId);
+        startJob(eventId, EventPriority.STANDARD);
+    }
+
+    public void startJob(String eventId, EventPriority priority) {
+        EventJob job;
+        jobsLock.lock();
+        try {
+            job = registerJob(eventId, priority, Duration.ofSeconds(1)); // Start after 1 second
+        } finally {
+            jobsLock.unlock();
+        }
+        log.info("Started scheduled job for {} event: {} every {} ms", priority, eventId, job.intervalMs);
+    }
+
+    /**
+     * Starts the jobs of many events in one call, as on a warm restart. Without phase
+     * staggering the first polls are spread randomly over each event's interval, so the
+     * rehydrated events do not all poll in the same tick. The batch holds the jobs lock
+     * throughout, so a stopJob racing the rehydration lands wholly before or after it.
+     */
+    public void startJobs(Map<String, EventPriority> events) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        jobsLock.lock();
+        try {
+            events.forEach((eventId, priority) -> {
+                long intervalMs = pollIntervalPolicy.initialIntervalMs(priority);
+                registerJob(eventId, priority, Duration.ofMillis(random.nextLong(intervalMs)));
+            });
+        } finally {
+            jobsLock.unlock();
+        }
+        log.info("Started scheduled jobs for {} events", events.size());
+    }
+
+    private EventJob registerJob(String eventId, EventPriority priority, Duration unstaggeredDelay) {
+        // Stop any existing job for this event, it keeps its phase
+        cancelJob(eventId);
+
+        // A job always starts from its tier's initial interval, so going LIVE again resets any backoff
+        EventJob job = new EventJob(priority, pollIntervalPolicy.initialIntervalMs(priority));
+        Duration initialDelay = unstaggeredDelay;
+        if (phaseStaggerEnabled) {
+            initialDelay = delayUntilPhase(phaseAllocator.assign(eventId), job.intervalMs);
+        }
+        schedule(eventId, job, initialDelay);
+
+        scheduledJobs.put(eventId, job);
+        return job;
+    }
+
+    private void schedule(String eventId, EventJob job, Duration initialDelay) {
+        Duration interval = Duration.ofMillis(job.intervalMs);
+
+        // The wheel runs each poll on a virtual thread
+        if (batchFetchEnabled) {
+            // Events due in the same tick are fetched together through the bulk route
+            job.timeout = timingWheel.scheduleAtFixedRate(eventId, batchPoll, initialDelay, interval);
+        } else {
+            job.timeout = timingWheel.scheduleAtFixedRate(() -> pollScore(eventId), initialDelay, interval);
+        }
+
+        // Under load, higher tiers are dispatched and fetched first within a tick
+        job.timeout.setPriority(job.priority.rank());
+    }
 
-        // Create a new scheduled task that runs every 10 seconds to get soccer scores
-        Runnable task = () -> {
+    /**
+     * Delay until the next time the wall clock, taken modulo the interval, reaches the bucket's
+     * phase. Events with the same interval therefore keep their relative offsets.
+     */
+    private Duration delayUntilPhase(int bucket, long intervalMs) {
+        long phaseMs = phaseAllocator.phaseOffsetMs(bucket, intervalMs);
+        return Duration.ofMillis(Math.floorMod(phaseMs - System.currentTimeMillis(), intervalMs));
+    }
+
+    /**
+     * Moves events out of crowded phases after others have left, until the phases are even again.
+     */
+    private void rebalancePhases() {
+        Optional<PhaseAllocator.Move> move;
+        while ((move = phaseAllocator.rebalance()).isPresent()) {
+            String eventId = move.get().eventId();
+            EventJob job = scheduledJobs.get(eventId);
+            if (job == null) {
+                phaseAllocator.release(eventId);
+                continue;
+            }
+            job.timeout.cancel();
+            schedule(eventId, job, delayUntilPhase(move.get().bucket(), job.intervalMs));
+            log.debug("Moved event {} to phase bucket {}", eventId, move.get().bucket());
+        }
+    }
+
+    void pollScore(String eventId) {
+        // Skip the tick while the previous poll of this event is still running
+        EventJob job = scheduledJobs.get(eventId);
+        if (job != null && !job.inFlight.compareAndSet(false, true)) {
+            skippedTicks.increment();
+            return;
+        }
+        try {
+            if (!tryAcquireFetchPermit(job == null ? EventPriority.STANDARD : job.priority)) {
+                shedTicks.increment();
+                return;
+            }
             try {
-                String url = baseUrl + "/" + eventId + "/score";
-                ResponseEntity<SoccerScoreDto> response = restTemplate.getForEntity(url, SoccerScoreDto.class);
-                
-                if (response.getStatusCode().is2xxSuccessful()) {
-                    SoccerScoreDto scoreDto = response.getBody();
-                    
-                    // Validate the response
-                    if (scoreDto != null && isValidSoccerScore(scoreDto)) {
-                        log.info("Score update for event {}: Event ID: {}, Current Score: {}", 
-                            eventId, scoreDto.eventId(), scoreDto.currentScore());
-                        
-                        // Send the score to Kafka using outbox pattern
-                        outboxService.saveMessageAndSendToKafka(scoreDto.eventId(), scoreDto.currentScore());
-                    } else {
-                        log.warn("Invalid score response for event: {}, Response: {}", eventId, scoreDto);
-                    }
-                } else {
-                    log.error("Soccer server returned error status for event {}: {}", eventId, response.getStatusCode());
+                long fetchStartedAt = System.nanoTime();
+                handleScore(eventId, scoreClient.fetchScore(eventId), fetchStartedAt);
+            } finally {
+                releaseFetchPermit();
+            }
+        } catch (Exception e) {
+            log.error("Error calling soccer server endpoint for event: {} - {}", eventId, e.getMessage());
+        } finally {
+            if (job != null) {
+                job.inFlight.set(false);
+            }
+        }
+    }
+
+    /**
+     * Fetches the scores of all events due in one tick through the bulk route, in chunks of at
+     * most the configured batch size. Falls back to per-event polls when the upstream has no
+     * bulk route, and probes it again after the retry interval.
+     */
+    void pollScores(List<String> eventIds) {
+        for (int from = 0; from < eventIds.size(); from += batchFetchSize) {
+            List<String> chunk = eventIds.subList(from, Math.min(from + batchFetchSize, eventIds.size()));
+            if (System.currentTimeMillis() < bulkRouteUnavailableUntil || !pollScoreChunk(chunk)) {
+                chunk.forEach(eventId -> virtualThreadExecutor.execute(() -> pollScore(eventId)));
+            }
+        }
+    }
+
+    /**
+     * Fetches one chunk through the bulk route, skipping events whose previous poll is still
+     * running. The whole chunk takes a single fetch permit, at the tier of its highest priority event.
+     *
+     * @return false when the upstream has no bulk route and nothing was polled
+     */
+    private boolean pollScoreChunk(List<String> chunk) {
+        List<EventJob> claimed = new ArrayList<>();
+        List<String> eventIds = new ArrayList<>();
+        EventPriority priority = EventPriority.LOW;
+        for (String eventId : chunk) {
+            EventJob job = scheduledJobs.get(eventId);
+            if (job == null) {
+                eventIds.add(eventId);
+                priority = higher(priority, EventPriority.STANDARD);
+            } else if (job.inFlight.compareAndSet(false, true)) {
+                claimed.add(job);
+                eventIds.add(eventId);
+                priority = higher(priority, job.priority);
+            } else {
+                skippedTicks.increment();
+            }
+        }
+        if (eventIds.isEmpty()) {
+            return true;
+        }
+
+        try {
+            if (!tryAcquireFetchPermit(priority)) {
+                shedTicks.increment(eventIds.size());
+                return true;
+            }
+            try {
+                return pollScoreBatch(eventIds);
+            } finally {
+                releaseFetchPermit();
+            }
+        } finally {
+            claimed.forEach(job -> job.inFlight.set(false));
+        }
+    }
+
+    /**
+     * Takes a slot of the fetch budget unless the tier has used up its share. Lower tiers are
+     * shed while part of the budget is still free, so a PREMIUM poll finds a slot under load.
+     */
+    private boolean tryAcquireFetchPermit(EventPriority priority) {
+        if (fetchLimits == null) {
+            inFlightFetches.incrementAndGet();
+            return true;
+        }
+        int limit = fetchLimits[priority.rank()];
+        while (true) {
+            int current = inFlightFetches.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlightFetches.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseFetchPermit() {
+        inFlightFetches.decrementAndGet();
+    }
+
+    private static EventPriority higher(EventPriority a, EventPriority b) {
+        return a.rank() <= b.rank() ? a : b;
+    }
+
+    private boolean pollScoreBatch(List<String> eventIds) {
+        try {
+            long fetchStartedAt = System.nanoTime();
+            Optional<List<SoccerScoreDto>> scores = scoreClient.fetchScores(eventIds);
+            if (scores.isEmpty()) {
+                bulkRouteUnavailableUntil = System.currentTimeMillis() + bulkRouteRetryIntervalMs;
+                log.warn("Soccer server has no bulk score route, polling events one by one");
+                return false;
+            }
+            // The upstream may answer with events that were not asked for, those are not this chunk's to publish
+            Set<String> requested = new HashSet<>(eventIds);
+            for (SoccerScoreDto scoreDto : scores.get()) {
+                if (scoreDto == null || !requested.contains(scoreDto.eventId())) {
+                    log.warn("Ignoring score of unrequested event in bulk response: {}", scoreDto);
+                    continue;
                 }
-            } catch (Exception e) {
-                log.error("Error calling soccer server endpoint for event: {} - {}", eventId, e.getMessage());
+                handleScore(scoreDto.eventId(), scoreDto, fetchStartedAt);
             }
-        };
+            return true;
+        } catch (Exception e) {
+            log.error("Error calling soccer server bulk endpoint for {} events - {}", eventIds.size(), e.getMessage());
+            return true;
+        }
+    }
+
+    private void handleScore(String eventId, SoccerScoreDto scoreDto, long fetchStartedAt) {
+        // Validate the response
+        if (scoreDto != null && isValidSoccerScore(scoreDto)) {
+            publishPolledScore(eventId, scoreDto, fetchStartedAt);
+        } else {
+            log.warn("Invalid score response for event: {}, Response: {}", eventId, scoreDto);
+        }
+    }
 
-        Runnable virtualTask = () -> virtualThreadExecutor.submit(task);
+    /**
+     * Handles a score pushed by the upstream stream. Only events with a running job are
+     * published. The pushed score becomes the job's last seen score, so the next poll finds it
+     * unchanged and polling backs off towards the tier maximum while the stream delivers.
+     */
+    public void onScorePushed(SoccerScoreDto scoreDto) {
+        EventJob job = scoreDto.eventId() == null ? null : scheduledJobs.get(scoreDto.eventId());
+        if (job == null) {
+            return;
+        }
+        if (!isValidSoccerScore(scoreDto)) {
+            log.warn("Invalid pushed score for event: {}, Score: {}", scoreDto.eventId(), scoreDto);
+            return;
+        }
+        job.publishLock.lock();
+        try {
+            // Polls that fetched before this push are dropped from now on
+            job.lastPushNanos = System.nanoTime();
+            job.lastScore = scoreDto.currentScore();
+            submitScore(scoreDto.eventId(), scoreDto, job.priority);
+        } finally {
+            job.publishLock.unlock();
+        }
+    }
 
-        // Schedule the task to run every 10 seconds
-        ScheduledFuture<?> scheduledTask = taskScheduler.scheduleAtFixedRate(
-            virtualTask,
-            Instant.now().plusSeconds(1), // Start after 1 second
-                Duration.ofMillis(10000) // Every 10 seconds
-        );
+    /**
+     * @param fetchStartedAt {@link System#nanoTime()} before the upstream call that returned the score
+     */
+    private void publishPolledScore(String eventId, SoccerScoreDto scoreDto, long fetchStartedAt) {
+        EventJob job = scheduledJobs.get(eventId);
+        if (job == null) {
+            submitScore(eventId, scoreDto, EventPriority.STANDARD);
+            return;
+        }
+        // A push and a poll of the same event may race: only one of them may publish the change, and a
+        // poll that fetched before a push must not publish its older score after it
+        job.publishLock.lock();
+        try {
+            if (job.lastPushNanos - fetchStartedAt > 0) {
+                stalePolls.increment();
+                log.debug("Dropping polled score {} of event {}, a newer score was pushed meanwhile", scoreDto.currentScore(), eventId);
+                return;
+            }
+            adaptPollInterval(job, eventId, scoreDto.currentScore());
+            submitScore(eventId, scoreDto, job.priority);
+        } finally {
+            job.publishLock.unlock();
+        }
+    }
 
-        scheduledTasks.put(eventId, scheduledTask);
-        log.info("Started scheduled job for event: {}", eventId);
+    private void submitScore(String eventId, SoccerScoreDto scoreDto, EventPriority priority) {
+        if (scorePipeline != null) {
+            // The pipeline dedupes on a single thread, in the order the scores were submitted
+            scorePipeline.submit(scoreDto.eventId(), scoreDto.currentScore(), priority);
+            return;
+        }
+        publishIfChanged(eventId, scoreDto, priority);
+    }
+
+    private void publishIfChanged(String eventId, SoccerScoreDto scoreDto, EventPriority priority) {
+        // Most ticks return the same score, those never reach the outbox
+        if (!scoreCache.shouldPublish(scoreDto.eventId(), scoreDto.currentScore())) {
+            log.debug("Score unchanged for event {}: {}", eventId, scoreDto.currentScore());
+            return;
+        }
+
+        log.info("Score update for event {}: Event ID: {}, Current Score: {}",
+            eventId, scoreDto.eventId(), scoreDto.currentScore());
+
+        // Send the score to Kafka using outbox pattern
+        if (outboxService.saveMessageAndSendToKafka(scoreDto.eventId(), scoreDto.currentScore(), priority)) {
+            scoreCache.recordPublished(scoreDto.eventId(), scoreDto.currentScore());
+        }
+    }
+
+    private void adaptPollInterval(EventJob job, String eventId, String currentScore) {
+        String previousScore = job.lastScore;
+        job.lastScore = currentScore;
+        if (previousScore == null) {
+            return;
+        }
+
+        long intervalMs = pollIntervalPolicy.nextIntervalMs(job.intervalMs, !previousScore.equals(currentScore), job.priority);
+        if (intervalMs != job.intervalMs) {
+            job.intervalMs = intervalMs;
+            if (phaseStaggerEnabled) {
+                reschedulePhase(eventId, job);
+            } else {
+                job.timeout.setPeriod(Duration.ofMillis(intervalMs));
+            }
+            log.debug("Poll interval for event {} is now {} ms", eventId, intervalMs);
+        }
+    }
+
+    /**
+     * Restarts the job at its new interval on its phase bucket. Only changing the period would
+     * keep the offset the job had at its old interval, which is not the bucket's phase at the new one.
+     */
+    private void reschedulePhase(String eventId, EventJob job) {
+        jobsLock.lock();
+        try {
+            // A job stopped or replaced meanwhile stays that way
+            if (scheduledJobs.get(eventId) != job || job.timeout.isCancelled()) {
+                return;
+            }
+            // Scheduled before the old timeout is cancelled, so the job never looks stopped
+            HashedTimingWheel.Timeout previous = job.timeout;
+            schedule(eventId, job, delayUntilPhase(phaseAllocator.assign(eventId), job.intervalMs));
+            previous.cancel();
+        } finally {
+            jobsLock.unlock();
+        }
+    }
+
+    /**
+     * @return the current poll interval of the event, or null when it is not polled
+     */
+    public Long getPollIntervalMs(String eventId) {
+        EventJob job = scheduledJobs.get(eventId);
+        return job == null ? null : job.intervalMs;
     }
 
     public void stopJob(String eventId) {
-        ScheduledFuture<?> scheduledTask = scheduledTasks.get(eventId);
-        if (scheduledTask != null && !scheduledTask.isCancelled()) {
-            scheduledTask.cancel(false);
-            scheduledTasks.remove(eventId);
+        jobsLock.lock();
+        try {
+            cancelJob(eventId);
+            if (phaseStaggerEnabled) {
+                phaseAllocator.release(eventId);
+                rebalancePhases();
+            }
+        } finally {
+            jobsLock.unlock();
+        }
+    }
+
+    private void cancelJob(String eventId) {
+        EventJob scheduledJob = scheduledJobs.get(eventId);
+        if (scheduledJob != null && !scheduledJob.timeout.isCancelled()) {
+            scheduledJob.timeout.cancel();
+            scheduledJobs.remove(eventId);
+            scoreCache.evict(eventId);
             log.info("Stopped scheduled job for event: {}", eventId);
         }
     }
 
     public boolean isJobRunning(String eventId) {
-        ScheduledFuture<?> scheduledTask = scheduledTasks.get(eventId);
-        return scheduledTask != null && !scheduledTask.isCancelled() && !scheduledTask.isDone();
+        EventJob scheduledJob = scheduledJobs.get(eventId);
+        return scheduledJob != null && !scheduledJob.timeout.isCancelled();
+    }
+
+    /**
+     * @return ids of the events this instance currently polls
+     */
+    public Set<String> getScheduledEventIds() {
+        return Set.copyOf(scheduledJobs.keySet());
     }
 
     @PreDestroy
     public void shutdown() {
-        for (ScheduledFuture<?> task : scheduledTasks.values()) {
-            if (!task.isCancelled()) {
-                task.cancel(true);
-            }
+        for (EventJob job : scheduledJobs.values()) {
+            job.timeout.cancel();
         }
-        scheduledTasks.clear();
+        scheduledJobs.clear();
         virtualThreadExecutor.shutdown();
     }
     
     public boolean isValidSoccerScore(SoccerScoreDto scoreDto) {
         // Validate event ID is not null/empty
-        if (scoreDto.eventId() == null || scoreDto.eventId().trim().isEmpty()) {
+        if (!SoccerScoreDto.isValidEventId(scoreDto.eventId())) {
             log.warn("Invalid event ID: {}", scoreDto.eventId());
             return false;
         }
         
         // Validate score format (should be in format "X:Y" where X and Y are numbers)
-        if (scoreDto.currentScore() == null || !scoreDto.currentScore().matches("^\\d+:\\d+$")) {
+        if (!SoccerScoreDto.isValidScore(scoreDto.currentScore())) {
             log.warn("Invalid score format: {}", scoreDto.currentScore());
             return false;
         }
         
         return true;
     }
-}
\ No newline at end of file
+
+    /**
+     * Polling state of one live event.
+     */
+    private static final class EventJob {
+
+        private final EventPriority priority;
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+        // A lock rather than synchronized, so a virtual thread waiting on the outbox write does not pin its carrier
+        private final ReentrantLock publishLock = new ReentrantLock();
+        private volatile HashedTimingWheel.Timeout timeout;
+        private volatile long intervalMs;
+        private volatile String lastScore;
+        // System.nanoTime() of the last pushed score, polls that started fetching before it are stale
+        private volatile long lastPushNanos;
+
+        private EventJob(EventPriority priority, long intervalMs) {
+            this.priority = priority;
+            this.intervalMs = intervalMs;
+            this.lastPushNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Subscribes to the soccer server's server-sent events stream and hands every pushed score
+ * to the {@link ScheduledJobService}. A single connection carries the changes of all events,
+ * so score changes arrive without waiting for the next poll; polling keeps running as the
+ * safety net for missed pushes and while the stream is down. The server sends a keep-alive
+ * ping every few seconds, so a connection that has been silent for several ping intervals is
+ * treated as dead and reopened, even when no TCP error ever arrives.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "score.stream.enabled", havingValue = "true")
+public class ScoreStreamListener {
+
+    private final ScheduledJobService scheduledJobService;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Counter receivedScores;
+    private final Counter malformedScores;
+    private final StringBuilder data = new StringBuilder();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Value("${score.endpoint.url:http://localhost:8081}")
+    private String baseUrl;
+
+    @Value("${score.stream.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    @Value("${score.stream.idle-timeout-ms:45000}")
+    private long idleTimeoutMs = 45000;
+
+    public ScoreStreamListener(ScheduledJobService scheduledJobService, ObjectMapper objectMapper,
+                               @Value("${score.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+                               MeterRegistry meterRegistry) {
+        this.scheduledJobService = scheduledJobService;
+        this.objectMapper = objectMapper;
+        // HTTP/1.1 keeps the long-lived stream on its own connection instead of a shared HTTP/2 one
+        // Lines are handed to the job service on the client's executor, virtual threads may block on the outbox there
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.receivedScores = Counter.builder("score.stream.received")
+                .description("Scores pushed by the soccer server stream")
+                .register(meterRegistry);
+        this.malformedScores = Counter.builder("score.stream.malformed")
+                .description("Stream events that could not be parsed as a score")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("score-stream-listener").start(this::listen);
+        log.info("Started score stream listener on {}/scores/stream", baseUrl);
+    }
+
+    private void listen() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/scores/stream"))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        while (running) {
+            // A partial event from a dropped connection is never completed
+            data.setLength(0);
+            StreamSubscriber subscriber = new StreamSubscriber();
+            try {
+                HttpResponse<Void> response = awaitStreamEnd(httpClient.sendAsync(request, info -> {
+                    if (info.statusCode() / 100 != 2) {
+                        return HttpResponse.BodySubscribers.replacing(null);
+                    }
+                    log.info("Connected to score stream");
+                    return HttpResponse.BodySubscribers.fromLineSubscriber(subscriber);
+                }), subscriber);
+                if (response == null) {
+                    log.warn("No line from the score stream for {} ms, reconnecting", idleTimeoutMs);
+                    continue;
+                }
+                if (response.statusCode() / 100 != 2) {
+                    throw new IOException("Soccer server returned status " + response.statusCode());
+                }
+                if (running) {
+                    log.warn("Score stream closed by the soccer server, reconnecting in {} ms", reconnectDelayMs);
+                }
+            } catch (IOException | ExecutionException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("Score stream connection lost, reconnecting in {} ms - {}", reconnectDelayMs, cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                subscriber.cancel();
+            }
+            sleep(reconnectDelayMs);
+        }
+    }
+
+    /**
+     * Waits until the stream ends, as long as lines keep arriving within the idle timeout.
+     *
+     * @return the response once the stream has ended, or null when it went idle and was cancelled
+     */
+    private HttpResponse<Void> awaitStreamEnd(CompletableFuture<HttpResponse<Void>> response, StreamSubscriber subscriber)
+            throws ExecutionException, InterruptedException {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        while (true) {
+            long remaining = subscriber.lastLineNanos + idleTimeoutNanos - System.nanoTime();
+            if (remaining <= 0) {
+                // Cancelling the body subscription closes the connection
+                subscriber.cancel();
+                response.cancel(true);
+                return null;
+            }
+            try {
+                return response.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Lines may have arrived meanwhile, the deadline is recomputed from the last one
+            }
+        }
+    }
+
+    /**
+     * Consumes one line of the event stream. Data lines are buffered until the blank line
+     * that ends the event; comments, such as keep-alive pings, and other fields are ignored.
+     */
+    void handleLine(String line) {
+        if (line.isEmpty()) {
+            if (!data.isEmpty()) {
+                dispatch(data.toString());
+                data.setLength(0);
+            }
+        } else if (line.startsWith("data:")) {
+            if (!data.isEmpty()) {
+                data.append('\n');
+            }
+            data.append(line.startsWith("data: ") ? line.substring(6) : line.substring(5));
+        }
+    }
+
+    private void dispatch(String payload) {
+        SoccerScoreDto score;
+        try {
+            score = objectMapper.readValue(payload, SoccerScoreDto.class);
+        } catch (JsonProcessingException e) {
+            malformedScores.increment();
+            log.warn("Malformed score stream event: {}", payload);
+            return;
+        }
+        receivedScores.increment();
+        try {
+            scheduledJobService.onScorePushed(score);
+        } catch (Exception e) {
+            log.error("Error handling pushed score for event: {} - {}", score.eventId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Receives the lines of one connection and records when the last one arrived. Keep-alive
+     * pings count, so only a connection that has gone silent trips the idle timeout.
+     */
+    private final class StreamSubscriber implements Flow.Subscriber<String> {
+
+        // Counted from the request, so a server that never answers trips the timeout as well
+        private volatile long lastLineNanos = System.nanoTime();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            lastLineNanos = System.nanoTime();
+            if (!cancelled && running) {
+                handleLine(line);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // Surfaces through the response future
+        }
+
+        @Override
+        public void onComplete() {
+            // Surfaces through the response future
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.sporty.homework.event_publisher.service;
 
+import com.sporty.homework.event_publisher.cluster.EventOwnershipService;
 import com.sporty.homework.event_publisher.dao.EventDao;
 import com.sporty.homework.event_publisher.model.Event;
 import com.sporty.homework.event_publisher.dto.EventDto;
 import com.sporty.homework.event_publisher.dto.CreateEventDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import com.sporty.homework.event_publisher.scheduler.ScheduledJobService;
 import org.springframework.stereotype.Service;
@@ -14,39 +16,66 @@ public class EventService {
 
     private final EventDao eventDao;
     private final ScheduledJobService scheduledJobService;
+    private final EventOwnershipService eventOwnershipService;
 
-    public EventService(EventDao eventDao, ScheduledJobService scheduledJobService) {
+    public EventService(EventDao eventDao, ScheduledJobService scheduledJobService,
+                        EventOwnershipService eventOwnershipService) {
         this.eventDao = eventDao;
         this.scheduledJobService = scheduledJobService;
+        this.eventOwnershipService = eventOwnershipService;
     }
 
     @Transactional
     public void addEvent(CreateEventDto createEventDto) {
-        eventDao.insertEvent(createEventDto.eventId(), createEventDto.status());
+        EventPriority priority = createEventDto.priority() != null ? createEventDto.priority() : EventPriority.STANDARD;
+        eventDao.insertEvent(createEventDto.eventId(), createEventDto.status(), priority);
         
-        // If the initial status is LIVE, start the job
-        if (createEventDto.status() == EventStatus.LIVE) {
-            scheduledJobService.startJob(createEventDto.eventId());
+        // If the initial status is LIVE, start the job; events owned by another node are started there on the status notification
+        if (createEventDto.status() == EventStatus.LIVE && eventOwnershipService.isOwnedLocally(createEventDto.eventId())) {
+            scheduledJobService.startJob(createEventDto.eventId(), priority);
         }
     }
 
     @Transactional
     public void updateEventStatus(String eventId, EventStatus status) {
+        updateEventStatus(eventId, status, null);
+    }
+
+    /**
+     * @param priority new priority tier, or null to keep the current one
+     */
+    @Transactional
+    public void updateEventStatus(String eventId, EventStatus status, EventPriority priority) {
         eventDao.updateEventStatus(eventId, status);
+        if (priority != null) {
+            eventDao.updateEventPriority(eventId, priority);
+        }
         
-        // Manage the scheduled job based on status
-        if (status == EventStatus.LIVE) {
-            scheduledJobService.startJob(eventId);
+        // Manage the scheduled job based on status, the owning node reacts to the status notification
+        if (status == EventStatus.LIVE && eventOwnershipService.isOwnedLocally(eventId)) {
+            scheduledJobService.startJob(eventId, priority != null ? priority : findPriority(eventId));
         } else if (status == EventStatus.NOT_LIVE) {
             scheduledJobService.stopJob(eventId);
         }
     }
 
+    /**
+     * @return the current poll interval of a LIVE event, or null when the event is not polled
+     */
+    public Long findPollIntervalMs(String eventId) {
+        return scheduledJobService.getPollIntervalMs(eventId);
+    }
+
     public EventDto findEventById(String eventId) {
         Event event = eventDao.findByEventId(eventId);
         if (event == null) {
             return null;
         }
-        return new EventDto(event.getEventId(), event.getStatus());
+        return new EventDto(event.getEventId(), event.getStatus(), event.getPriority());
+    }
+
+    private EventPriority findPriority(String eventId) {
+        Event event = eventDao.findByEventId(eventId);
+        return event != null && event.getPriority() != null ? event.getPriority() : EventPriority.STANDARD;
     }
 }
\ No newline at end of file
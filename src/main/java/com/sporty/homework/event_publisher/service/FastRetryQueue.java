@@ -0,0 +1,169 @@
+package com.sporty.homework.event_publisher.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-memory delay queue for quick retries of failed Kafka sends. A short broker blip
+ * is then retried within a second instead of waiting for the next relay run, and without the
+ * extra FAILED update. Retries are only held in memory: a message turned away because the
+ * queue is full takes the outbox retry path, and one dropped when the process stops is still
+ * in the outbox and relayed once its send claim has gone stale.
+ */
+@Slf4j
+@Component
+public class FastRetryQueue {
+
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final int capacity;
+    private final DelayQueue<DelayedRetry> queue = new DelayQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ExecutorService retryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter scheduledRetries;
+    private final Counter overflowedRetries;
+    private final Counter exhaustedRetries;
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    @Autowired
+    public FastRetryQueue(MeterRegistry meterRegistry,
+                          @Value("${outbox.fast-retry.enabled:false}") boolean enabled,
+                          @Value("${outbox.fast-retry.max-attempts:3}") int maxAttempts,
+                          @Value("${outbox.fast-retry.initial-delay-ms:100}") long initialDelayMs,
+                          @Value("${outbox.fast-retry.multiplier:2.0}") double multiplier,
+                          @Value("${outbox.fast-retry.capacity:1000}") int capacity) {
+        if (maxAttempts < 0) {
+            throw new IllegalArgumentException("Fast retry max attempts must not be negative");
+        }
+        if (initialDelayMs < 0) {
+            throw new IllegalArgumentException("Fast retry initial delay must not be negative");
+        }
+        if (multiplier <= 0) {
+            throw new IllegalArgumentException("Fast retry multiplier must be positive");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Fast retry capacity must be positive");
+        }
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMs = initialDelayMs;
+        this.multiplier = multiplier;
+        this.capacity = capacity;
+        this.scheduledRetries = Counter.builder("outbox.fast-retry.scheduled")
+                .description("Failed sends queued for an in-memory retry")
+                .register(meterRegistry);
+        this.overflowedRetries = Counter.builder("outbox.fast-retry.overflow")
+                .description("Failed sends left to the outbox relay because the retry queue was full")
+                .register(meterRegistry);
+        this.exhaustedRetries = Counter.builder("outbox.fast-retry.exhausted")
+                .description("Failed sends left to the outbox relay after their in-memory retries")
+                .register(meterRegistry);
+        Gauge.builder("outbox.fast-retry.queue.depth", queued, AtomicInteger::get)
+                .description("Retries waiting in the fast retry queue")
+                .register(meterRegistry);
+        if (enabled) {
+            running = true;
+            dispatcher = Thread.ofVirtual().name("outbox-fast-retry").start(this::dispatch);
+        }
+    }
+
+    /**
+     * Never retries.
+     */
+    public FastRetryQueue(MeterRegistry meterRegistry) {
+        this(meterRegistry, false, 3, 100, 2.0, 1000);
+    }
+
+    /**
+     * @param failedAttempts number of failed sends of the message so far, starting at 1
+     * @param retry          runs the next attempt once its delay has passed
+     * @return false when the message has used up its quick retries or the queue is full, the
+     * caller then falls back to the outbox retry path
+     */
+    public boolean schedule(int failedAttempts, Runnable retry) {
+        if (!running) {
+            return false;
+        }
+        if (failedAttempts > maxAttempts) {
+            exhaustedRetries.increment();
+            return false;
+        }
+        if (queued.getAndUpdate(size -> size < capacity ? size + 1 : size) >= capacity) {
+            overflowedRetries.increment();
+            return false;
+        }
+        long delayMs = Math.round(initialDelayMs * Math.pow(multiplier, failedAttempts - 1));
+        queue.put(new DelayedRetry(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs), retry));
+        scheduledRetries.increment();
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                DelayedRetry due = queue.take();
+                queued.decrementAndGet();
+                // Each retry waits on its own send, so one slow retry does not hold back the others
+                retryExecutor.execute(() -> {
+                    try {
+                        due.retry().run();
+                    } catch (Exception e) {
+                        log.error("Error running fast retry", e);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        int dropped = queue.size();
+        queue.clear();
+        queued.set(0);
+        retryExecutor.shutdown();
+        if (dropped > 0) {
+            log.info("Dropped {} fast retries, their messages are relayed from the outbox once their claims go stale", dropped);
+        }
+    }
+
+    private record DelayedRetry(long dueAtNanos, Runnable retry) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((DelayedRetry) other).dueAtNanos);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.enums.CircuitBreakerState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker around Kafka sends. After a number of consecutive failed or timed out sends
+ * the circuit opens and callers skip the broker instead of each waiting out the send timeout,
+ * so outbox rows simply stay in the outbox. Once the open duration has passed a single trial
+ * call is let through; its first result closes the circuit again or reopens it.
+ */
+@Slf4j
+@Component
+public class KafkaCircuitBreaker {
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final MeterRegistry meterRegistry;
+    // Only held for a few field updates, and unlike synchronized it does not pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter rejectedCalls;
+    private volatile CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private long trialStartedAtNanos;
+    private boolean trialInFlight;
+
+    @Autowired
+    public KafkaCircuitBreaker(MeterRegistry meterRegistry,
+                               @Value("${kafka.circuit-breaker.enabled:false}") boolean enabled,
+                               @Value("${kafka.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${kafka.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+        if (failureThreshold <= 0 || openDurationMs < 0) {
+            throw new IllegalArgumentException("Circuit breaker failure threshold must be positive");
+        }
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.meterRegistry = meterRegistry;
+        this.rejectedCalls = Counter.builder("kafka.circuit-breaker.rejected")
+                .description("Kafka calls skipped because the circuit was open")
+                .register(meterRegistry);
+        for (CircuitBreakerState candidate : CircuitBreakerState.values()) {
+            Gauge.builder("kafka.circuit-breaker.state", this, breaker -> breaker.state == candidate ? 1 : 0)
+                    .tag("state", candidate.name())
+                    .description("1 for the current state of the Kafka circuit breaker")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Never opens.
+     */
+    public KafkaCircuitBreaker(MeterRegistry meterRegistry) {
+        this(meterRegistry, false, 5, 30000);
+    }
+
+    public CircuitBreakerState getState() {
+        return state;
+    }
+
+    public boolean isOpen() {
+        return state == CircuitBreakerState.OPEN;
+    }
+
+    /**
+     * @return whether the caller may call the broker. Every permitted call must report its
+     * outcome through {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public boolean tryAcquirePermission() {
+        if (!enabled || state == CircuitBreakerState.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (state == CircuitBreakerState.OPEN && now - openedAtNanos >= openDurationNanos) {
+                transitionTo(CircuitBreakerState.HALF_OPEN);
+            }
+            // A trial that never reported back is given up after another open duration
+            if (state == CircuitBreakerState.HALF_OPEN
+                    && (!trialInFlight || now - trialStartedAtNanos >= openDurationNanos)) {
+                trialInFlight = true;
+                trialStartedAtNanos = now;
+                return true;
+            }
+            if (state == CircuitBreakerState.CLOSED) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        rejectedCalls.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            if (state == CircuitBreakerState.HALF_OPEN) {
+                trialInFlight = false;
+                transitionTo(CircuitBreakerState.CLOSED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> {
+                    if (++consecutiveFailures >= failureThreshold) {
+                        open();
+                    }
+                }
+                case HALF_OPEN -> {
+                    trialInFlight = false;
+                    open();
+                }
+                // Late results of sends issued before the circuit opened
+                case OPEN -> { }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        openedAtNanos = System.nanoTime();
+        consecutiveFailures = 0;
+        transitionTo(CircuitBreakerState.OPEN);
+    }
+
+    private void transitionTo(CircuitBreakerState next) {
+        CircuitBreakerState previous = state;
+        state = next;
+        meterRegistry.counter("kafka.circuit-breaker.transitions", "from", previous.name(), "to", next.name()).increment();
+        if (next == CircuitBreakerState.OPEN) {
+            log.warn("Kafka circuit breaker opened, messages stay in the outbox until the broker recovers");
+        } else {
+            log.info("Kafka circuit breaker moved from {} to {}", previous, next);
+        }
+    }
+}
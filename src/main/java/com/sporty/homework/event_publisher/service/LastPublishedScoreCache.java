@@ -0,0 +1,70 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Remembers the last score written to the outbox per event, so polls that return an
+ * unchanged score can skip the outbox entirely. An unchanged score is still republished
+ * once the heartbeat interval has passed.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LastPublishedScoreCache implements ApplicationRunner {
+
+    private final MessageDao messageDao;
+    private final Cache<String, PublishedScore> lastPublished;
+    private final long heartbeatIntervalMs;
+
+    public LastPublishedScoreCache(MessageDao messageDao,
+                                   @Value("${score.cache.max-size:100000}") long maxSize,
+                                   @Value("${score.cache.heartbeat-interval-ms:60000}") long heartbeatIntervalMs) {
+        this.messageDao = messageDao;
+        this.lastPublished = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Warm up from the outbox so a restart does not republish every live score
+        try {
+            List<SoccerScoreDto> latestScores = messageDao.findLatestScoresForLiveEvents();
+            for (SoccerScoreDto score : latestScores) {
+                recordPublished(score.eventId(), score.currentScore());
+            }
+            log.info("Warmed last published score cache with {} live events", latestScores.size());
+        } catch (Exception e) {
+            log.error("Failed to warm last published score cache", e);
+        }
+    }
+
+    public boolean shouldPublish(String eventId, String currentScore) {
+        PublishedScore published = lastPublished.getIfPresent(eventId);
+        if (published == null || !published.score().equals(currentScore)) {
+            return true;
+        }
+        return heartbeatIntervalMs > 0 && System.currentTimeMillis() - published.publishedAt() >= heartbeatIntervalMs;
+    }
+
+    public void recordPublished(String eventId, String currentScore) {
+        lastPublished.put(eventId, new PublishedScore(currentScore, System.currentTimeMillis()));
+    }
+
+    public void evict(String eventId) {
+        lastPublished.invalidate(eventId);
+    }
+
+    private record PublishedScore(String score, long publishedAt) {}
+}
@@ -0,0 +1,69 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.cluster.EventOwnershipService;
+import com.sporty.homework.event_publisher.dao.EventDao;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.model.Event;
+import com.sporty.homework.event_publisher.scheduler.ScheduledJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restores the score jobs of all LIVE events on startup, which are otherwise lost with the
+ * previous process. Events are streamed from the database and registered in bulk with
+ * staggered first polls. Spring Boot only reports the application as ready once every
+ * runner has completed, so readiness waits for the rehydration; a failed rehydration fails
+ * the startup instead of leaving an instance up that polls nothing.
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class LiveEventRehydrationService implements ApplicationRunner {
+
+    private final EventDao eventDao;
+    private final ScheduledJobService scheduledJobService;
+    private final EventOwnershipService eventOwnershipService;
+
+    @Value("${scheduler.rehydration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduler.rehydration.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+
+        // With ownership enabled the first heartbeat starts exactly the events this node owns
+        if (eventOwnershipService.isEnabled()) {
+            eventOwnershipService.join();
+            log.info("Rehydrated owned live events in {} ms", System.currentTimeMillis() - startedAt);
+            return;
+        }
+
+        int count = eventDao.forEachLiveEventBatch(batchSize, this::startJobs);
+        log.info("Rehydrated {} live events in {} ms", count, System.currentTimeMillis() - startedAt);
+    }
+
+    private void startJobs(List<Event> events) {
+        Map<String, EventPriority> jobs = new LinkedHashMap<>();
+        for (Event event : events) {
+            jobs.put(event.getEventId(), event.getPriority() != null ? event.getPriority() : EventPriority.STANDARD);
+        }
+        scheduledJobService.startJobs(jobs);
+    }
+}
@@ -0,0 +1,163 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.enums.OutboxPublishMode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens on the {@code message_outbox} channel and wakes the outbox relay as soon as
+ * a row needs publishing, instead of waiting for the next fixed-rate run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.listener.enabled", havingValue = "true")
+public class OutboxNotificationListener {
+
+    private static final String CHANNEL = "message_outbox";
+
+    private final OutboxProcessorService outboxProcessorService;
+    private final ScheduledExecutorService delayedWakeups = Executors.newSingleThreadScheduledExecutor();
+    private final Set<Long> scheduledWakeups = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${outbox.publish.mode:INLINE}")
+    private OutboxPublishMode publishMode;
+
+    @Value("${outbox.listener.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${outbox.listener.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    @Value("${outbox.listener.failed-wakeup-delay-ms:2000}")
+    private long failedWakeupDelayMs;
+
+    @Value("${outbox.listener.failed-wakeup-granularity-ms:500}")
+    private long failedWakeupGranularityMs;
+
+    public OutboxNotificationListener(OutboxProcessorService outboxProcessorService) {
+        this.outboxProcessorService = outboxProcessorService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("outbox-listener").start(this::listen);
+        log.info("Started outbox notification listener on channel: {}", CHANNEL);
+    }
+
+    private void listen() {
+        while (running) {
+            // A dedicated connection keeps the LISTEN session from pinning a pooled connection
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        handle(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox listener connection lost, reconnecting in {} ms - {}", reconnectDelayMs, e.getMessage());
+                sleep(reconnectDelayMs);
+            }
+        }
+    }
+
+    private void handle(PGNotification[] notifications) {
+        boolean pending = false;
+        for (PGNotification notification : notifications) {
+            String parameter = notification.getParameter();
+            if (parameter != null && parameter.startsWith(MessageStatus.FAILED.name())) {
+                scheduleRetryWakeup(parseBackoffMs(parameter));
+            } else {
+                pending = true;
+            }
+        }
+
+        // New rows are published by the writer itself unless the relay owns publishing
+        if (pending && publishMode == OutboxPublishMode.RELAY) {
+            outboxProcessorService.requestProcessing();
+        }
+    }
+
+    /**
+     * Wakes the relay when a failed row's backoff expires. Due times are rounded to a coarse
+     * granularity so a burst of failures schedules a handful of wakeups instead of one per row.
+     */
+    private void scheduleRetryWakeup(long backoffMs) {
+        long now = System.currentTimeMillis();
+        long dueAt = ((now + backoffMs) / failedWakeupGranularityMs + 1) * failedWakeupGranularityMs;
+        if (scheduledWakeups.add(dueAt)) {
+            delayedWakeups.schedule(() -> {
+                scheduledWakeups.remove(dueAt);
+                outboxProcessorService.requestProcessing();
+            }, dueAt - now, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private long parseBackoffMs(String parameter) {
+        // Payload is "FAILED:<backoff millis>", older rows may notify plain "FAILED"
+        int separator = parameter.indexOf(':');
+        if (separator < 0) {
+            return failedWakeupDelayMs;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(parameter.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return failedWakeupDelayMs;
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        delayedWakeups.shutdownNow();
+    }
+}
@@ -0,0 +1,86 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.OutboxPartitionDao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the daily {@code message_outbox} partitions ahead of the clock and retires old
+ * partitions whose messages have all been sent, so retention never needs a bulk DELETE.
+ * Rows written for a day without a partition land in {@code message_outbox_default} and move
+ * to their day's partition once it is created; the default partition itself is never retired.
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class OutboxPartitionMaintenanceService implements ApplicationRunner {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("message_outbox_p(\\d{8})");
+
+    private final OutboxPartitionDao outboxPartitionDao;
+
+    @Value("${outbox.partition.precreate-days:7}")
+    private int precreateDays;
+
+    @Value("${outbox.partition.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${outbox.partition.detach-only:false}")
+    private boolean detachOnly;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Make sure today's partition exists before any score job writes to the outbox
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${outbox.partition.maintenance-cron:0 5 * * * *}")
+    public void maintainPartitions() {
+        try {
+            createUpcomingPartitions(LocalDate.now());
+            retireExpiredPartitions(LocalDate.now());
+        } catch (Exception e) {
+            log.error("Error maintaining message_outbox partitions", e);
+        }
+    }
+
+    void createUpcomingPartitions(LocalDate today) {
+        for (int offset = 0; offset <= precreateDays; offset++) {
+            outboxPartitionDao.createPartition(today.plusDays(offset));
+        }
+    }
+
+    void retireExpiredPartitions(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        for (String partition : outboxPartitionDao.findPartitionNames()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate day = LocalDate.parse(matcher.group(1), DateTimeFormatter.BASIC_ISO_DATE);
+            if (!day.isBefore(cutoff)) {
+                continue;
+            }
+            // Checked without locks first, so a partition that is kept never blocks the outbox
+            if (outboxPartitionDao.hasUnsentMessages(partition)
+                    || !outboxPartitionDao.retirePartition(partition, detachOnly)) {
+                log.warn("Keeping expired outbox partition {} because it still holds unsent messages", partition);
+                continue;
+            }
+            log.info("{} expired outbox partition {}", detachOnly ? "Detached" : "Dropped", partition);
+        }
+    }
+}
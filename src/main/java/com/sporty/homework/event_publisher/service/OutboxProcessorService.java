@@ -1,28 +1,67 @@
 package com.sporty.homework.event_publisher.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OutboxProcessorService {
 
     private final OutboxService outboxService;
+    private final ExecutorService wakeupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean rerunRequested = new AtomicBoolean();
 
     @Value("${outbox.processor.interval:10000}") // Default to 10 seconds
     private long processorInterval;
 
     /**
-     * Scheduled task to process pending and failed messages
+     * Scheduled task to process pending and failed messages. When the outbox listener is enabled
+     * this only acts as a safety net for missed notifications.
      */
     @Scheduled(fixedRateString = "${outbox.processor.interval:10000}") // Configurable interval, default to 10 seconds
     public void processOutboxMessages() {
-        log.info("Processing outbox messages...");
-        outboxService.processPendingMessages();
-        log.info("Completed processing outbox messages");
+        // Only one relay run at a time, a request that arrives meanwhile triggers one more run.
+        // The request is recorded before trying to run, and the running flag is only given up
+        // once no request is left, so a request arriving while the runner lets go is never lost
+        rerunRequested.set(true);
+        while (rerunRequested.get() && running.compareAndSet(false, true)) {
+            try {
+                while (rerunRequested.getAndSet(false)) {
+                    log.info("Processing outbox messages...");
+                    outboxService.processPendingMessages();
+                    log.info("Completed processing outbox messages");
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * Wakes the relay without waiting for the next scheduled run.
+     */
+    public void requestProcessing() {
+        wakeupExecutor.execute(() -> {
+            try {
+                processOutboxMessages();
+            } catch (Exception e) {
+                log.error("Error processing outbox messages on wakeup", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeupExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.dto.ReplayRequestDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends PERMANENTLY_FAILED outbox rows back through the relay. Matching rows are reset to
+ * PENDING in keyset batches by id, each batch in its own short transaction, and the batches
+ * are paced so a large replay does not flood the relay and the broker.
+ */
+@Slf4j
+@Service
+public class OutboxReplayService {
+
+    private final MessageDao messageDao;
+    private final ExecutorService replayExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter replayedMessages;
+
+    @Value("${outbox.replay.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${outbox.replay.max-messages-per-second:1000}")
+    private int maxMessagesPerSecond = 1000;
+
+    public OutboxReplayService(MessageDao messageDao, MeterRegistry meterRegistry) {
+        this.messageDao = messageDao;
+        this.replayedMessages = Counter.builder("outbox.replay.messages")
+                .description("Permanently failed outbox messages reset to PENDING by a replay")
+                .register(meterRegistry);
+    }
+
+    public long countReplayable(ReplayRequestDto filter) {
+        return messageDao.countReplayableMessages(filter);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Starts replaying the matching rows in the background.
+     *
+     * @return false when another replay is still running
+     */
+    public boolean startReplay(ReplayRequestDto filter) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            replayExecutor.execute(() -> {
+                try {
+                    replay(filter);
+                } catch (Exception e) {
+                    log.error("Outbox replay of {} failed", filter, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (Exception e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of rows reset to PENDING
+     */
+    int replay(ReplayRequestDto filter) throws InterruptedException {
+        long startedAt = System.nanoTime();
+        long afterId = 0;
+        int replayed = 0;
+        List<Long> ids;
+        do {
+            ids = messageDao.resetForReplay(filter, afterId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = Collections.max(ids);
+            replayed += ids.size();
+            replayedMessages.increment(ids.size());
+            log.info("Replayed {} outbox messages up to ID: {}", replayed, afterId);
+            throttle(replayed, startedAt);
+        } while (ids.size() >= batchSize);
+
+        log.info("Outbox replay of {} reset {} messages to PENDING in {} ms", filter, replayed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return replayed;
+    }
+
+    // Sleeps until the replay is back under the configured rate
+    private void throttle(int replayed, long startedAt) throws InterruptedException {
+        if (maxMessagesPerSecond <= 0) {
+            return;
+        }
+        long dueNanos = TimeUnit.SECONDS.toNanos(replayed) / maxMessagesPerSecond;
+        long aheadNanos = dueNanos - (System.nanoTime() - startedAt);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Rows reset so far stay PENDING, the rest can be replayed again with the same filter
+        replayExecutor.shutdownNow();
+    }
+}
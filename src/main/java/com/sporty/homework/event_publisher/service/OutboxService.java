@@ -3,18 +3,38 @@ package com.sporty.homework.event_publisher.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sporty.homework.event_publisher.dao.MessageDao;
 import com.sporty.homework.event_publisher.dto.EventScoreMessageDto;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sporty.homework.event_publisher.enums.CircuitBreakerState;
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.enums.OutboxPublishMode;
 import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 @Slf4j
@@ -22,25 +42,94 @@ import java.util.concurrent.TimeoutException;
 @RequiredArgsConstructor
 public class OutboxService {
 
+    public static final String OUTBOX_ID_HEADER = "outbox-id";
+    public static final String EVENT_SCORE_UPDATE = "EVENT_SCORE_UPDATE";
+    public static final String DLT_ORIGINAL_TOPIC_HEADER = "dlt-original-topic";
+    public static final String DLT_EVENT_TYPE_HEADER = "dlt-event-type";
+    public static final String DLT_RETRY_COUNT_HEADER = "dlt-retry-count";
+    public static final String DLT_CREATED_AT_HEADER = "dlt-created-at";
+    public static final String DLT_LAST_ATTEMPT_AT_HEADER = "dlt-last-attempt-at";
+    // Matches the retry_count bound of the failed-row queries in MessageDao
+    static final int MAX_SEND_ATTEMPTS = 5;
+
     private final MessageDao messageDao;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final RetryBackoffPolicy retryBackoffPolicy;
+    private final MeterRegistry meterRegistry;
+    private final OutboxWriter outboxWriter;
+    private final TransactionOperations transactionOperations;
+    private final KafkaCircuitBreaker circuitBreaker;
+    private final FastRetryQueue fastRetryQueue;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService publishExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService laneExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @Value("${kafka.topic.event-scores:event-scores}")
     private String eventScoresTopic;
 
-    @Transactional
-    public void saveMessageAndSendToKafka(String eventId, String currentScore) {
+    @Value("${kafka.topic.event-scores-dlt:event-scores.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${outbox.dead-letter.enabled:false}")
+    private boolean deadLetterEnabled;
+
+    @Value("${outbox.publish.mode:INLINE}")
+    private OutboxPublishMode publishMode = OutboxPublishMode.INLINE;
+
+    @Value("${outbox.relay.batch-enabled:false}")
+    private boolean batchRelayEnabled;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int relayBatchSize;
+
+    @Value("${outbox.relay.pipelined:false}")
+    private boolean pipelinedRelayEnabled;
+
+    @Value("${outbox.relay.send-timeout-ms:5000}")
+    private long relaySendTimeoutMs;
+
+    @Value("${outbox.relay.lanes:1}")
+    private int relayLanes;
+
+    // Event types whose messages are snapshots, only the newest one per event is relayed
+    @Value("${outbox.coalesce.event-types:}")
+    private List<String> coalescedEventTypes = List.of();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("outbox.relay.lanes", this, service -> service.relayLanes)
+                .description("Number of parallel relay lanes")
+                .register(meterRegistry);
+    }
+
+    public boolean saveMessageAndSendToKafka(String eventId, String currentScore) {
+        return saveMessageAndSendToKafka(eventId, currentScore, EventPriority.STANDARD);
+    }
+
+    /**
+     * @param priority tier of the event, higher tiers are relayed first
+     * @return true when the score was written to the outbox
+     */
+    public boolean saveMessageAndSendToKafka(String eventId, String currentScore, EventPriority priority) {
+        // A group commit writes the row in its own transaction, holding one open here would only
+        // pin a pooled connection while the caller waits for the batch
+        if (outboxWriter.isGroupCommitEnabled()) {
+            return saveMessage(eventId, currentScore, priority);
+        }
+        return Boolean.TRUE.equals(transactionOperations.execute(status -> saveMessage(eventId, currentScore, priority)));
+    }
+
+    private boolean saveMessage(String eventId, String currentScore, EventPriority priority) {
         try {
             // Validate input parameters
-            if (eventId == null || eventId.trim().isEmpty()) {
+            if (!SoccerScoreDto.isValidEventId(eventId)) {
                 log.error("Invalid event ID: {}", eventId);
-                return;
+                return false;
             }
             
-            if (currentScore == null || !currentScore.matches("^\\d+:\\d+$")) {
+            if (!SoccerScoreDto.isValidScore(currentScore)) {
                 log.error("Invalid score format: {}", currentScore);
-                return;
+                return false;
             }
 
             // Create the message to be stored in the outbox
@@ -50,85 +139,491 @@ public class OutboxService {
             // Create and save the outbox message
             Message outboxMessage = new Message();
             outboxMessage.setEventId(eventId);
-            outboxMessage.setEventType("EVENT_SCORE_UPDATE");
+            outboxMessage.setEventType(EVENT_SCORE_UPDATE);
             outboxMessage.setPayload(payload);
             outboxMessage.setStatus(MessageStatus.PENDING);
             outboxMessage.setCreatedAt(LocalDateTime.now());
             outboxMessage.setRetryCount(0);
+            outboxMessage.setPriority(priority.rank());
 
-            Long messageId = messageDao.insertMessage(outboxMessage);
+            // Completes once the row is committed when it goes through a group commit
+            Long messageId = outboxWriter.insert(outboxMessage).join();
             log.info("Saved message to outbox for event: {} with ID: {}", eventId, messageId);
 
-            // Attempt to send to Kafka and update status
-            if (sendMessageToKafka(eventId, payload, messageId)) {
-                messageDao.updateMessageStatus(messageId, MessageStatus.SENT, LocalDateTime.now());
-                log.info("Successfully sent message to Kafka and updated status for event: {}", eventId);
-            } else {
-                messageDao.markMessageAsFailed(messageId, MessageStatus.FAILED, LocalDateTime.now());
-                log.error("Failed to send message to Kafka for event: {}, saved to outbox for retry", eventId);
+            switch (publishMode) {
+                case INLINE -> publishSavedMessage(eventId, payload, messageId);
+                case AFTER_COMMIT -> publishAfterCommit(eventId, payload, messageId);
+                case RELAY -> log.debug("Message with ID: {} left to the outbox relay", messageId);
             }
+            return true;
         } catch (Exception e) {
             log.error("Error in outbox pattern for event: {}", eventId, e);
+            return false;
         }
     }
 
-    private boolean sendMessageToKafka(String eventId, String payload, Long messageId) {
+    /**
+     * Publishes a row that is already committed, such as one written by the score pipeline.
+     * The send never runs on the caller's thread, so INLINE mode publishes as AFTER_COMMIT does;
+     * in RELAY mode the row is left to the relay.
+     */
+    public void publishCommittedMessage(String eventId, String payload, Long messageId) {
+        if (publishMode == OutboxPublishMode.RELAY) {
+            log.debug("Message with ID: {} left to the outbox relay", messageId);
+            return;
+        }
+        publishAfterCommit(eventId, payload, messageId);
+    }
+
+    private void publishSavedMessage(String eventId, String payload, Long messageId) {
+        if (circuitBreaker.isOpen()) {
+            // The row stays PENDING and is relayed once the broker is back, the relay makes the trial calls
+            log.debug("Kafka circuit open, message with ID: {} left to the outbox relay", messageId);
+            return;
+        }
+        // The relay may pick up the same PENDING row, only whoever claims it sends it
+        if (!messageDao.claimForSend(messageId)) {
+            log.debug("Message with ID: {} already taken by the outbox relay", messageId);
+            return;
+        }
+        // Asked only once the row is ours: a permitted call has to report an outcome, so a lost
+        // claim would otherwise hold the half-open trial slot
+        if (!circuitBreaker.tryAcquirePermission()) {
+            messageDao.releaseSendClaim(messageId);
+            log.debug("Kafka circuit open, message with ID: {} handed back to the outbox relay", messageId);
+            return;
+        }
+        sendClaimedMessage(eventId, payload, messageId, 1);
+    }
+
+    private void sendClaimedMessage(String eventId, String payload, Long messageId, int attempt) {
+        // Attempt to send to Kafka and update status
+        SendOutcome outcome = sendMessageToKafka(eventId, payload, messageId);
+        if (outcome == SendOutcome.SENT) {
+            messageDao.updateMessageStatus(messageId, MessageStatus.SENT, LocalDateTime.now());
+            if (attempt > 1) {
+                meterRegistry.counter("outbox.fast-retry.recovered").increment();
+            }
+            log.info("Successfully sent message to Kafka and updated status for event: {}", eventId);
+        } else if (outcome == SendOutcome.NOT_ATTEMPTED) {
+            // The circuit opened since the claim, nothing was sent so no attempt is counted
+            messageDao.releaseSendClaim(messageId);
+            log.debug("Kafka circuit open, message with ID: {} handed back to the outbox relay", messageId);
+        } else if (fastRetryQueue.schedule(attempt, () -> retryClaimedMessage(eventId, payload, messageId, attempt + 1))) {
+            // The row stays SENDING while it is retried in memory, so the relay leaves it alone
+            log.warn("Failed to send message to Kafka for event: {}, retrying in memory (attempt {})", eventId, attempt);
+        } else {
+            recordFailedAttempt(messageDao, messageId, 1);
+            log.error("Failed to send message to Kafka for event: {}, saved to outbox for retry", eventId);
+        }
+    }
+
+    private void retryClaimedMessage(String eventId, String payload, Long messageId, int attempt) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            // Hand the row back to the relay, which resumes once the circuit closes
+            messageDao.releaseSendClaim(messageId);
+            log.debug("Kafka circuit open, message with ID: {} handed back to the outbox relay", messageId);
+            return;
+        }
+        sendClaimedMessage(eventId, payload, messageId, attempt);
+    }
+
+    /**
+     * Defers the Kafka send until the outbox row is committed and runs it off the caller's
+     * thread, so the transaction only holds its connection for the INSERT.
+     */
+    private void publishAfterCommit(String eventId, String payload, Long messageId) {
+        Runnable publish = () -> publishExecutor.execute(() -> {
+            try {
+                publishSavedMessage(eventId, payload, messageId);
+            } catch (Exception e) {
+                // The row stays PENDING, or SENDING until its claim goes stale, and is picked up by the relay
+                log.error("Error publishing committed message with ID: {}", messageId, e);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    private SendOutcome sendMessageToKafka(String eventId, String payload, Long messageId) {
+        // Once the circuit has opened, the rest of a relay batch is skipped instead of each row
+        // waiting out the timeout; skipped rows keep their status and retry count
+        if (circuitBreaker.isOpen()) {
+            return SendOutcome.NOT_ATTEMPTED;
+        }
         try {
             // Send message to Kafka and wait for the result with timeout to ensure delivery
-            var sendResult = kafkaTemplate.send(eventScoresTopic, eventId, payload).get(5, java.util.concurrent.TimeUnit.SECONDS);
-            return sendResult.getRecordMetadata() != null;
+            var sendResult = send(eventId, payload, messageId).get(5, java.util.concurrent.TimeUnit.SECONDS);
+            return recordSendOutcome(sendResult.getRecordMetadata() != null);
         } catch (java.util.concurrent.TimeoutException e) {
             log.error("Timeout sending message to Kafka for message ID: {}", messageId, e);
-            return false;
+            return recordSendOutcome(false);
         } catch (ExecutionException e) {
             log.error("Failed to send message to Kafka for message ID: {}", messageId, e.getCause());
-            return false;
+            return recordSendOutcome(false);
         } catch (Exception e) {
             log.error("Failed to send message to Kafka for message ID: {}", messageId, e);
-            return false;
+            return recordSendOutcome(false);
+        }
+    }
+
+    private SendOutcome recordSendOutcome(boolean sent) {
+        if (sent) {
+            circuitBreaker.onSuccess();
+            return SendOutcome.SENT;
         }
+        circuitBreaker.onFailure();
+        return SendOutcome.FAILED;
     }
 
     public void processPendingMessages() {
-        // Process pending messages
-        List<Message> pendingMessages = messageDao.findPendingMessages();
-        for (Message message : pendingMessages) {
-            processMessage(message);
+        coalesceSupersededMessages();
+
+        if (batchRelayEnabled) {
+            processClaimedBatches();
+        } else {
+            // Process pending messages
+            List<Message> pendingMessages = messageDao.findPendingMessages();
+            relayBatch(messageDao, pendingMessages);
+
+            // Process failed messages (with retry logic)
+            List<Message> failedMessages = messageDao.findFailedMessages();
+            relayBatch(messageDao, failedMessages);
         }
 
-        // Process failed messages (with retry logic)
-        List<Message> failedMessages = messageDao.findFailedMessages();
-        for (Message message : failedMessages) {
-            processMessage(message);
+        if (deadLetterEnabled) {
+            deadLetterPermanentlyFailedMessages();
         }
     }
 
-    private void processMessage(Message message) {
+    /**
+     * Publishes permanently failed rows to the dead-letter topic with their failure metadata in
+     * headers. Rows are marked once the broker has acknowledged them, so a row whose dead-letter
+     * send fails is picked up again by a later relay run.
+     */
+    private void deadLetterPermanentlyFailedMessages() {
         try {
-            if (sendMessageToKafka(extractEventId(message.getPayload()), message.getPayload(), message.getId())) {
-                messageDao.updateMessageStatus(message.getId(), MessageStatus.SENT, LocalDateTime.now());
-                log.info("Successfully sent previously failed message to Kafka with ID: {}", message.getId());
-            } else {
-                // Check retry count and update accordingly
-                if (message.getRetryCount() < 5) { // Max 5 retries
-                    messageDao.markMessageAsFailed(message.getId(), MessageStatus.FAILED, LocalDateTime.now());
-                    log.warn("Failed to send message to Kafka after retry, ID: {}, retry count: {}", 
-                             message.getId(), message.getRetryCount() + 1);
-                } else {
-                    // Mark as permanently failed after max retries
-                    messageDao.updateMessageStatus(message.getId(), MessageStatus.PERMANENTLY_FAILED, LocalDateTime.now());
-                    log.error("Message permanently failed after max retries, ID: {}", message.getId());
-                }
+            int claimed;
+            do {
+                claimed = messageDao.deadLetterBatch(relayBatchSize, this::deadLetterBatch);
+            } while (claimed > 0 && claimed >= relayBatchSize && circuitBreaker.getState() == CircuitBreakerState.CLOSED);
+        } catch (Exception e) {
+            log.error("Error publishing permanently failed messages to the dead-letter topic", e);
+        }
+    }
+
+    private void deadLetterBatch(MessageDao dao, List<Message> batch) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.debug("Kafka circuit open, leaving {} permanently failed messages for a later run", batch.size());
+            return;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (Message message : batch) {
+            try {
+                futures.add(kafkaTemplate.send(deadLetterRecord(message)));
+            } catch (Exception e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(relaySendTimeoutMs);
+        List<Long> deadLettered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (awaitSendResult(futures.get(i), deadline, batch.get(i).getId()) == SendOutcome.SENT) {
+                deadLettered.add(batch.get(i).getId());
+            }
+        }
+        if (!deadLettered.isEmpty()) {
+            dao.markDeadLettered(deadLettered, LocalDateTime.now());
+            meterRegistry.counter("outbox.dead-letter.messages").increment(deadLettered.size());
+            log.warn("Published {} permanently failed messages to dead-letter topic {}", deadLettered.size(), deadLetterTopic);
+        }
+    }
+
+    private ProducerRecord<String, String> deadLetterRecord(Message message) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(deadLetterTopic, relayKey(message), message.getPayload());
+        addHeader(record, OUTBOX_ID_HEADER, message.getId());
+        addHeader(record, DLT_ORIGINAL_TOPIC_HEADER, eventScoresTopic);
+        addHeader(record, DLT_EVENT_TYPE_HEADER, message.getEventType());
+        addHeader(record, DLT_RETRY_COUNT_HEADER, message.getRetryCount());
+        addHeader(record, DLT_CREATED_AT_HEADER, message.getCreatedAt());
+        addHeader(record, DLT_LAST_ATTEMPT_AT_HEADER, message.getLastAttemptAt());
+        return record;
+    }
+
+    private static void addHeader(ProducerRecord<String, String> record, String name, Object value) {
+        if (value != null) {
+            record.headers().add(name, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Collapses the backlog of snapshot event types to the newest message per event, so
+     * catching up after an outage scales with the number of live events, not its length.
+     */
+    private void coalesceSupersededMessages() {
+        if (coalescedEventTypes == null || coalescedEventTypes.isEmpty()) {
+            return;
+        }
+        try {
+            int superseded = messageDao.markSupersededMessages(coalescedEventTypes, LocalDateTime.now());
+            if (superseded > 0) {
+                meterRegistry.counter("outbox.coalesced.messages").increment(superseded);
+                log.info("Superseded {} stale outbox messages", superseded);
             }
         } catch (Exception e) {
-            log.error("Error processing message with ID: {}", message.getId(), e);
-            // Check retry count before incrementing
-            if (message.getRetryCount() < 5) {
-                messageDao.markMessageAsFailed(message.getId(), MessageStatus.FAILED, LocalDateTime.now());
-            } else {
-                messageDao.updateMessageStatus(message.getId(), MessageStatus.PERMANENTLY_FAILED, LocalDateTime.now());
+            log.error("Error coalescing superseded outbox messages", e);
+        }
+    }
+
+    /**
+     * Relays the outbox in bounded batches claimed with FOR UPDATE SKIP LOCKED, so several
+     * instances can drain it in parallel without sending the same row twice.
+     */
+    private void processClaimedBatches() {
+        // Keep claiming pending batches until the backlog is drained
+        int claimed;
+        do {
+            claimed = messageDao.relayPendingBatch(relayBatchSize, this::relayBatch);
+        } while (claimed > 0 && claimed >= relayBatchSize && circuitBreaker.getState() == CircuitBreakerState.CLOSED);
+
+        // Failed rows get a single batch per run so they are not retried in a tight loop
+        messageDao.relayFailedBatch(relayBatchSize, this::relayBatch);
+    }
+
+    private void relayBatch(MessageDao dao, List<Message> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // A whole batch counts as one call, so a half-open circuit is probed with a single batch
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.debug("Kafka circuit open, leaving {} outbox messages for a later run", batch.size());
+            return;
+        }
+
+        // A transactional batch must commit as a whole, lanes would each commit their own share
+        SendOutcome[] outcomes = relayLanes > 1 && !kafkaTemplate.isTransactional() ? sendInLanes(batch) : sendBatch(batch);
+
+        // Status transitions stay on the caller, which owns the (possibly transaction-bound) DAO
+        for (int i = 0; i < batch.size(); i++) {
+            Message message = batch.get(i);
+            try {
+                applyRelayOutcome(message, outcomes[i], dao);
+            } catch (Exception e) {
+                handleRelayError(message, dao, e);
+            }
+        }
+    }
+
+    private SendOutcome[] sendBatch(List<Message> batch) {
+        if (kafkaTemplate.isTransactional()) {
+            return sendTransactional(batch);
+        }
+        if (pipelinedRelayEnabled) {
+            return sendPipelined(batch);
+        }
+        SendOutcome[] outcomes = new SendOutcome[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Message message = batch.get(i);
+            outcomes[i] = sendMessageToKafka(relayKey(message), message.getPayload(), message.getId());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Spreads a batch over {@code relayLanes} lanes by eventId hash. Each lane sends its share in
+     * outbox order on its own virtual thread, so different matches are relayed in parallel while
+     * the updates of one match never overtake each other, mirroring Kafka's partitioning by key.
+     */
+    private SendOutcome[] sendInLanes(List<Message> batch) {
+        List<List<Integer>> lanes = new ArrayList<>(relayLanes);
+        for (int lane = 0; lane < relayLanes; lane++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            lanes.get(laneOf(relayKey(batch.get(i)))).add(i);
+        }
+
+        SendOutcome[] outcomes = new SendOutcome[batch.size()];
+        Arrays.fill(outcomes, SendOutcome.FAILED);
+        List<Future<?>> running = new ArrayList<>(relayLanes);
+        for (int lane = 0; lane < relayLanes; lane++) {
+            List<Integer> indexes = lanes.get(lane);
+            if (indexes.isEmpty()) {
+                continue;
             }
+            meterRegistry.counter("outbox.relay.lane.messages", "lane", String.valueOf(lane)).increment(indexes.size());
+            running.add(laneExecutor.submit(() -> {
+                List<Message> laneBatch = indexes.stream().map(batch::get).toList();
+                SendOutcome[] laneOutcomes = sendBatch(laneBatch);
+                for (int j = 0; j < indexes.size(); j++) {
+                    outcomes[indexes.get(j)] = laneOutcomes[j];
+                }
+            }));
+        }
+
+        // Messages of a lane that did not finish stay FAILED and are retried later
+        for (Future<?> lane : running) {
+            try {
+                lane.get();
+            } catch (ExecutionException e) {
+                log.error("Relay lane failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for relay lanes", e);
+            }
+        }
+        return outcomes;
+    }
+
+    private int laneOf(String eventId) {
+        return eventId == null ? 0 : Math.floorMod(eventId.hashCode(), relayLanes);
+    }
+
+    private String relayKey(Message message) {
+        return message.getEventId() != null ? message.getEventId() : extractEventId(message.getPayload());
+    }
+
+    /**
+     * Fires every send of the batch before waiting on any of them, so the producer can group
+     * them into record batches instead of paying one broker round-trip per row. Sends are issued
+     * in outbox order and records with the same eventId key share a partition, so per-event
+     * ordering is preserved by the producer.
+     */
+    private SendOutcome[] sendPipelined(List<Message> batch) {
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (Message message : batch) {
+            futures.add(sendMessageAsync(relayKey(message), message.getPayload(), message.getId()));
         }
+
+        // One deadline for the whole batch
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(relaySendTimeoutMs);
+        SendOutcome[] outcomes = new SendOutcome[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            outcomes[i] = awaitSendResult(futures.get(i), deadline, batch.get(i).getId());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Publishes the whole batch in one Kafka transaction, so either every record becomes
+     * visible to read_committed consumers or none does. Each record carries its outbox id
+     * in a header for consumers that still want to dedupe.
+     */
+    private SendOutcome[] sendTransactional(List<Message> batch) {
+        boolean committed;
+        try {
+            kafkaTemplate.executeInTransaction(operations -> {
+                for (Message message : batch) {
+                    operations.send(outboxRecord(relayKey(message), message.getPayload(), message.getId()));
+                }
+                return null;
+            });
+            committed = true;
+        } catch (Exception e) {
+            log.error("Kafka transaction failed for relay batch of {} messages", batch.size(), e);
+            committed = false;
+        }
+        SendOutcome[] outcomes = new SendOutcome[batch.size()];
+        Arrays.fill(outcomes, recordSendOutcome(committed));
+        return outcomes;
+    }
+
+    private CompletableFuture<SendResult<String, String>> sendMessageAsync(String eventId, String payload, Long messageId) {
+        try {
+            return send(eventId, payload, messageId);
+        } catch (Exception e) {
+            // send() can throw synchronously, e.g. when topic metadata is unavailable
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(String eventId, String payload, Long messageId) {
+        if (kafkaTemplate.isTransactional()) {
+            // The transaction is committed when executeInTransaction returns
+            return kafkaTemplate.executeInTransaction(operations -> operations.send(outboxRecord(eventId, payload, messageId)));
+        }
+        return kafkaTemplate.send(outboxRecord(eventId, payload, messageId));
+    }
+
+    private ProducerRecord<String, String> outboxRecord(String eventId, String payload, Long messageId) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(eventScoresTopic, eventId, payload);
+        if (messageId != null) {
+            record.headers().add(OUTBOX_ID_HEADER, messageId.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private SendOutcome awaitSendResult(CompletableFuture<SendResult<String, String>> future, long deadline, Long messageId) {
+        try {
+            // Once the circuit has opened only results that are already in are taken
+            long remaining = circuitBreaker.isOpen() ? 0L : Math.max(0L, deadline - System.nanoTime());
+            var sendResult = future.get(remaining, TimeUnit.NANOSECONDS);
+            return recordSendOutcome(sendResult.getRecordMetadata() != null);
+        } catch (TimeoutException e) {
+            log.error("Timeout sending message to Kafka for message ID: {}", messageId, e);
+            return recordSendOutcome(false);
+        } catch (ExecutionException e) {
+            log.error("Failed to send message to Kafka for message ID: {}", messageId, e.getCause());
+            return recordSendOutcome(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting for Kafka send of message ID: {}", messageId, e);
+            return SendOutcome.FAILED;
+        }
+    }
+
+    private void applyRelayOutcome(Message message, SendOutcome outcome, MessageDao dao) {
+        if (outcome == SendOutcome.NOT_ATTEMPTED) {
+            log.debug("Kafka circuit open, message with ID: {} left for a later run", message.getId());
+            return;
+        }
+        if (outcome == SendOutcome.SENT) {
+            dao.updateMessageStatus(message.getId(), MessageStatus.SENT, LocalDateTime.now());
+            log.info("Successfully sent previously failed message to Kafka with ID: {}", message.getId());
+        } else {
+            recordFailedAttempt(dao, message.getId(), message.getRetryCount() + 1);
+            log.warn("Failed to send message to Kafka after retry, ID: {}, retry count: {}",
+                     message.getId(), message.getRetryCount() + 1);
+        }
+    }
+
+    private void handleRelayError(Message message, MessageDao dao, Exception e) {
+        log.error("Error processing message with ID: {}", message.getId(), e);
+        recordFailedAttempt(dao, message.getId(), message.getRetryCount() + 1);
+    }
+
+    /**
+     * Counts a failed send of the row. The failed-row queries only pick up rows below the
+     * maximum, so the row that fails its last attempt is marked PERMANENTLY_FAILED right here.
+     *
+     * @param attempt number of failed sends of the row including this one, starting at 1
+     */
+    private void recordFailedAttempt(MessageDao dao, Long messageId, int attempt) {
+        LocalDateTime now = LocalDateTime.now();
+        if (attempt >= MAX_SEND_ATTEMPTS) {
+            dao.markMessageAsFailed(messageId, MessageStatus.PERMANENTLY_FAILED, now, null);
+            log.error("Message permanently failed after {} attempts, ID: {}", attempt, messageId);
+            return;
+        }
+        LocalDateTime nextAttemptAt = now.plus(retryBackoffPolicy.nextDelay(attempt));
+        dao.markMessageAsFailed(messageId, MessageStatus.FAILED, now, nextAttemptAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publishExecutor.shutdown();
+        laneExecutor.shutdown();
     }
 
     private String extractEventId(String payload) {
@@ -141,4 +636,10 @@ public class OutboxService {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private enum SendOutcome {
+        SENT,
+        FAILED,
+        NOT_ATTEMPTED // skipped while the Kafka circuit is open, the row keeps its status and retry count
+    }
+}
@@ -0,0 +1,221 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes outbox rows, optionally through a group commit. With group commit enabled, inserts
+ * from concurrent score jobs are queued and a single flusher writes them as one JDBC batch in
+ * one transaction, once the batch is full or the oldest insert has waited the maximum delay.
+ * Thousands of jobs then share a handful of round-trips and WAL flushes instead of paying one
+ * each. Callers get a future completing with the generated id once the row is committed.
+ */
+@Slf4j
+@Component
+public class OutboxWriter {
+
+    private final MessageDao messageDao;
+    private final boolean groupCommitEnabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingInsert> queue;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    // Inserts enqueue under the read lock and shutdown stops them under the write lock, so no
+    // insert lands in the queue after the flusher has written its last batch
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public OutboxWriter(MessageDao messageDao, MeterRegistry meterRegistry,
+                        @Value("${outbox.group-commit.enabled:false}") boolean groupCommitEnabled,
+                        @Value("${outbox.group-commit.max-batch-size:500}") int maxBatchSize,
+                        @Value("${outbox.group-commit.max-delay-ms:5}") long maxDelayMs,
+                        @Value("${outbox.group-commit.queue-capacity:10000}") int queueCapacity) {
+        if (maxBatchSize <= 0 || maxDelayMs < 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Group commit batch size and queue capacity must be positive");
+        }
+        this.messageDao = messageDao;
+        this.groupCommitEnabled = groupCommitEnabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flushTimer = Timer.builder("outbox.group-commit.flush")
+                .description("Time to write one group commit batch")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.group-commit.batch.size")
+                .description("Outbox rows written per group commit")
+                .register(meterRegistry);
+        Gauge.builder("outbox.group-commit.queue.depth", queue, BlockingQueue::size)
+                .description("Outbox inserts waiting for the next group commit")
+                .register(meterRegistry);
+        if (groupCommitEnabled) {
+            running = true;
+            flusher = Thread.ofVirtual().name("outbox-group-commit").start(this::runFlusher);
+        }
+    }
+
+    /**
+     * Writes every row with its own INSERT.
+     */
+    public OutboxWriter(MessageDao messageDao, MeterRegistry meterRegistry) {
+        this(messageDao, meterRegistry, false, 500, 5, 10000);
+    }
+
+    public boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    /**
+     * @return future completing with the id of the committed row. Without group commit the row
+     * is inserted on the caller's thread and joins the caller's transaction, if any.
+     */
+    public CompletableFuture<Long> insert(Message message) {
+        if (!groupCommitEnabled) {
+            return CompletableFuture.completedFuture(messageDao.insertMessage(message));
+        }
+        PendingInsert pending = new PendingInsert(message, new CompletableFuture<>());
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Outbox writer has been stopped"));
+            }
+            // Blocks the calling job while the queue is full, so a slow database pushes back on the producers
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        return pending.future();
+    }
+
+    /**
+     * Writes many rows at once, as the score pipeline does. Without group commit they are
+     * inserted as one JDBC batch on the caller's thread, with it they join the group commits of
+     * every other writer.
+     *
+     * @return one future per message, in order, each completing with the id of its committed row
+     */
+    public List<CompletableFuture<Long>> insertAll(List<Message> messages) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>(messages.size());
+        if (!groupCommitEnabled) {
+            messageDao.insertMessages(messages).forEach(id -> futures.add(CompletableFuture.completedFuture(id)));
+            return futures;
+        }
+        for (Message message : messages) {
+            futures.add(insert(message));
+        }
+        return futures;
+    }
+
+    private void runFlusher() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait at most the delay for the batch to fill up, counted from the oldest insert
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingInsert pending : batch) {
+            messages.add(pending.message());
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            List<Long> ids = messageDao.insertMessages(messages);
+            if (ids.size() != batch.size()) {
+                throw new IllegalStateException("Group commit returned " + ids.size() + " ids for " + batch.size() + " rows");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(ids.get(i));
+            }
+            log.debug("Group committed {} outbox rows", batch.size());
+        } catch (Exception e) {
+            // The batch is one transaction, none of its rows were written
+            log.error("Group commit of {} outbox rows failed", batch.size(), e);
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+        } finally {
+            flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!groupCommitEnabled) {
+            return;
+        }
+        // Stop taking inserts and let the flusher write what is already queued
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+            flusher.interrupt();
+            flusher.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flusher.interrupt();
+        }
+        // Whatever the flusher did not get to before it stopped
+        PendingInsert pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new IllegalStateException("Outbox writer has been stopped"));
+        }
+    }
+
+    private record PendingInsert(Message message, CompletableFuture<Long> future) {}
+}
@@ -0,0 +1,45 @@
+package com.sporty.homework.event_publisher.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for outbox retries.
+ */
+@Component
+public class RetryBackoffPolicy {
+
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final long maxDelayMs;
+    private final double jitter;
+
+    public RetryBackoffPolicy(@Value("${outbox.retry.initial-delay-ms:1000}") long initialDelayMs,
+                              @Value("${outbox.retry.multiplier:2.0}") double multiplier,
+                              @Value("${outbox.retry.max-delay-ms:60000}") long maxDelayMs,
+                              @Value("${outbox.retry.jitter:0.2}") double jitter) {
+        this.initialDelayMs = initialDelayMs;
+        this.multiplier = multiplier;
+        this.maxDelayMs = maxDelayMs;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @param attempt number of failed attempts so far, starting at 1
+     * @return how long to wait before the next attempt
+     */
+    public Duration nextDelay(int attempt) {
+        // Capped before the jitter, capping afterwards would give every capped retry exactly the maximum
+        double delay = Math.min(initialDelayMs * Math.pow(multiplier, Math.max(0, attempt - 1)), maxDelayMs);
+
+        // Spread retries of messages that failed together so they do not hit the broker in lockstep.
+        // The jitter only shortens the delay, so the maximum is never exceeded
+        if (jitter > 0) {
+            delay *= 1 - ThreadLocalRandom.current().nextDouble(jitter);
+        }
+        return Duration.ofMillis(Math.max(0L, Math.round(delay)));
+    }
+}
@@ -0,0 +1,8 @@
+-- V10__add_message_outbox_dead_lettered_at.sql
+
+-- Set once a PERMANENTLY_FAILED row has been published to the dead-letter topic
+ALTER TABLE message_outbox ADD COLUMN dead_lettered_at TIMESTAMP NULL;
+
+-- Keeps the scan for rows still owed to the dead-letter topic small
+CREATE INDEX idx_message_outbox_dead_letter ON message_outbox(id)
+    WHERE status = 'PERMANENTLY_FAILED' AND dead_lettered_at IS NULL;
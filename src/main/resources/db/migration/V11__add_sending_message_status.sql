@@ -0,0 +1,7 @@
+-- V11__add_sending_message_status.sql
+
+-- A publisher flips a PENDING row to SENDING before it sends the row itself, so the relay and
+-- the publisher never both send it. last_attempt_at holds the time of the claim
+ALTER TABLE message_outbox DROP CONSTRAINT message_outbox_status_check;
+ALTER TABLE message_outbox ADD CONSTRAINT message_outbox_status_check
+    CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED', 'PERMANENTLY_FAILED', 'SUPERSEDED'));
@@ -0,0 +1,34 @@
+-- V12__add_message_outbox_default_partition.sql
+
+-- Takes rows whose day has no partition yet, so inserts keep working if partition maintenance falls behind
+CREATE TABLE message_outbox_default PARTITION OF message_outbox DEFAULT;
+
+-- A day's range can only be split off the default partition once its rows have moved out of it
+CREATE OR REPLACE FUNCTION create_message_outbox_partition(partition_day DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'message_outbox_p' || to_char(partition_day, 'YYYYMMDD');
+    range_start TIMESTAMP := partition_day::timestamp;
+    range_end TIMESTAMP := (partition_day + 1)::timestamp;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    -- Holds off inserts until the partition exists, the partition DDL needs this lock anyway
+    LOCK TABLE ONLY message_outbox IN ACCESS EXCLUSIVE MODE;
+
+    IF NOT EXISTS (SELECT 1 FROM message_outbox_default WHERE created_at >= range_start AND created_at < range_end) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF message_outbox FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, range_start, range_end);
+        RETURN partition_name;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE message_outbox INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM message_outbox_default WHERE created_at >= %L AND created_at < %L RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved', range_start, range_end, partition_name);
+    EXECUTE format('ALTER TABLE message_outbox ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+    RAISE NOTICE 'Moved rows of % out of message_outbox_default', partition_day;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,6 @@
+-- V13__promote_exhausted_failed_messages.sql
+
+-- A row that failed its last attempt used to stay FAILED with retry_count = 5, which the relay
+-- never selects again. Such rows are permanently failed and owed to the dead-letter topic
+UPDATE message_outbox SET status = 'PERMANENTLY_FAILED', next_attempt_at = NULL
+WHERE status = 'FAILED' AND retry_count >= 5;
@@ -0,0 +1,16 @@
+-- V14__create_event_status_notify_trigger.sql
+
+-- Tell the owning publisher node right away when an event goes LIVE or NOT_LIVE, the status may
+-- have been changed through any node
+CREATE OR REPLACE FUNCTION notify_event_status() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('event_status', NEW.event_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_event_status_notify
+    AFTER INSERT OR UPDATE OF event_status ON event
+    FOR EACH ROW
+    WHEN (NEW.event_status IS NOT NULL)
+    EXECUTE FUNCTION notify_event_status();
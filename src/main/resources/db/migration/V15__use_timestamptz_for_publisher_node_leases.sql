@@ -0,0 +1,10 @@
+-- V15__use_timestamptz_for_publisher_node_leases.sql
+
+-- Lease times compared as plain TIMESTAMP depended on each session's TimeZone setting, so two nodes
+-- with different settings disagreed on which leases had expired. Existing values were written
+-- in the session time zone of the node that wrote them, which is assumed to be the server's
+ALTER TABLE publisher_node
+    ALTER COLUMN started_at TYPE TIMESTAMPTZ,
+    ALTER COLUMN started_at SET DEFAULT now(),
+    ALTER COLUMN heartbeat_at TYPE TIMESTAMPTZ,
+    ALTER COLUMN lease_expires_at TYPE TIMESTAMPTZ;
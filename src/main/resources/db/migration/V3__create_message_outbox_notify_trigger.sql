@@ -0,0 +1,15 @@
+-- V3__create_message_outbox_notify_trigger.sql
+
+-- Wake the outbox relay whenever a row becomes PENDING or FAILED
+CREATE OR REPLACE FUNCTION notify_message_outbox() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('message_outbox', NEW.status);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_message_outbox_notify
+    AFTER INSERT OR UPDATE OF status ON message_outbox
+    FOR EACH ROW
+    WHEN (NEW.status IN ('PENDING', 'FAILED'))
+    EXECUTE FUNCTION notify_message_outbox();
@@ -0,0 +1,22 @@
+-- V4__add_message_outbox_next_attempt_at.sql
+
+-- Failed messages are retried once next_attempt_at is due instead of on every relay run
+ALTER TABLE message_outbox ADD COLUMN next_attempt_at TIMESTAMP NULL;
+
+UPDATE message_outbox SET next_attempt_at = COALESCE(last_attempt_at, created_at) WHERE status = 'FAILED';
+
+DROP INDEX IF EXISTS idx_message_outbox_last_attempt;
+CREATE INDEX idx_message_outbox_next_attempt ON message_outbox(next_attempt_at) WHERE status = 'FAILED';
+
+-- Tell the listener how long the failed row backs off so it can wake the relay when it is due
+CREATE OR REPLACE FUNCTION notify_message_outbox() RETURNS trigger AS $$
+BEGIN
+    IF NEW.status = 'FAILED' AND NEW.next_attempt_at IS NOT NULL AND NEW.last_attempt_at IS NOT NULL THEN
+        PERFORM pg_notify('message_outbox', 'FAILED:' ||
+            CAST(EXTRACT(EPOCH FROM (NEW.next_attempt_at - NEW.last_attempt_at)) * 1000 AS BIGINT));
+    ELSE
+        PERFORM pg_notify('message_outbox', NEW.status);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
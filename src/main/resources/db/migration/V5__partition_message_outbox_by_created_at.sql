@@ -0,0 +1,73 @@
+-- V5__partition_message_outbox_by_created_at.sql
+
+-- Move the existing outbox aside, keeping its id sequence for the partitioned table
+ALTER TABLE message_outbox RENAME TO message_outbox_legacy;
+ALTER TABLE message_outbox_legacy RENAME CONSTRAINT message_outbox_pkey TO message_outbox_legacy_pkey;
+ALTER SEQUENCE message_outbox_id_seq OWNED BY NONE;
+ALTER SEQUENCE message_outbox_id_seq AS BIGINT;
+
+DROP INDEX idx_message_outbox_status;
+DROP INDEX idx_message_outbox_created_at;
+DROP INDEX idx_message_outbox_event_id;
+DROP INDEX idx_message_outbox_next_attempt;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE message_outbox (
+    id BIGINT NOT NULL DEFAULT nextval('message_outbox_id_seq'),
+    event_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload jsonb NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'SENT', 'FAILED', 'PERMANENTLY_FAILED')),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL,
+    retry_count INTEGER DEFAULT 0,
+    last_attempt_at TIMESTAMP NULL,
+    next_attempt_at TIMESTAMP NULL,
+    CONSTRAINT message_outbox_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_message_outbox_event FOREIGN KEY (event_id) REFERENCES event(event_id)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE message_outbox_id_seq OWNED BY message_outbox.id;
+
+-- Indexes are created on every partition and stay bounded by the partition size
+CREATE INDEX idx_message_outbox_status ON message_outbox(status);
+CREATE INDEX idx_message_outbox_created_at ON message_outbox(created_at);
+CREATE INDEX idx_message_outbox_event_id ON message_outbox(event_id);
+CREATE INDEX idx_message_outbox_next_attempt ON message_outbox(next_attempt_at) WHERE status = 'FAILED';
+
+-- One partition per day, named message_outbox_pYYYYMMDD
+CREATE OR REPLACE FUNCTION create_message_outbox_partition(partition_day DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'message_outbox_p' || to_char(partition_day, 'YYYYMMDD');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF message_outbox FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_day::timestamp, (partition_day + 1)::timestamp);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    legacy_day DATE;
+BEGIN
+    FOR legacy_day IN SELECT DISTINCT created_at::date FROM message_outbox_legacy LOOP
+        PERFORM create_message_outbox_partition(legacy_day);
+    END LOOP;
+    FOR offset_days IN 0..7 LOOP
+        PERFORM create_message_outbox_partition(CURRENT_DATE + offset_days);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO message_outbox (id, event_id, event_type, payload, status, created_at, sent_at, retry_count, last_attempt_at, next_attempt_at)
+SELECT id, event_id, event_type, payload, status, created_at, sent_at, retry_count, last_attempt_at, next_attempt_at
+FROM message_outbox_legacy;
+
+DROP TABLE message_outbox_legacy;
+
+-- The notify trigger was dropped with the legacy table
+CREATE TRIGGER trg_message_outbox_notify
+    AFTER INSERT OR UPDATE OF status ON message_outbox
+    FOR EACH ROW
+    WHEN (NEW.status IN ('PENDING', 'FAILED'))
+    EXECUTE FUNCTION notify_message_outbox();
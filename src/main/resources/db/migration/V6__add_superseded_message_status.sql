@@ -0,0 +1,6 @@
+-- V6__add_superseded_message_status.sql
+
+-- Outbox rows replaced by a newer snapshot of the same event are never relayed
+ALTER TABLE message_outbox DROP CONSTRAINT message_outbox_status_check;
+ALTER TABLE message_outbox ADD CONSTRAINT message_outbox_status_check
+    CHECK (status IN ('PENDING', 'SENT', 'FAILED', 'PERMANENTLY_FAILED', 'SUPERSEDED'));
@@ -0,0 +1,10 @@
+-- V7__add_event_priority.sql
+
+-- Priority tier of an event, higher tiers are polled more often and relayed first
+ALTER TABLE event ADD COLUMN priority VARCHAR(20) NOT NULL DEFAULT 'STANDARD'
+    CHECK (priority IN ('PREMIUM', 'STANDARD', 'LOW'));
+
+-- Rank of the event's tier when the message was written, 0 (PREMIUM) is relayed first
+ALTER TABLE message_outbox ADD COLUMN priority SMALLINT NOT NULL DEFAULT 1;
+
+CREATE INDEX idx_message_outbox_pending_priority ON message_outbox(priority, created_at) WHERE status = 'PENDING';
@@ -0,0 +1,12 @@
+-- V8__create_publisher_node_table.sql
+
+-- Running publisher instances. A node renews its lease on every heartbeat, live events are
+-- spread over the nodes whose lease has not expired yet
+CREATE TABLE publisher_node (
+    node_id VARCHAR(255) PRIMARY KEY,
+    started_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    heartbeat_at TIMESTAMP NOT NULL,
+    lease_expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_publisher_node_lease_expires_at ON publisher_node(lease_expires_at);
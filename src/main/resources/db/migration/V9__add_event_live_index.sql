@@ -0,0 +1,5 @@
+-- V9__add_event_live_index.sql
+
+-- Lets startup rehydration and ownership reconciliation read the LIVE events with an
+-- index-only scan instead of scanning every event ever created
+CREATE INDEX idx_event_live ON event(event_id) INCLUDE (priority) WHERE event_status = 'LIVE';
@@ -0,0 +1,131 @@
+package com.sporty.homework.event_publisher.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientScoreClientTest {
+
+    private HttpServer server;
+
+    private HttpClientScoreClient scoreClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        scoreClient = new HttpClientScoreClient(new ObjectMapper(), baseUrl, 1000, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scoreClient.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldDecodeSingleScore() {
+        // Given
+        server.createContext("/event-1/score", exchange ->
+                respond(exchange, 200, "{\"eventId\":\"event-1\",\"currentScore\":\"2:1\"}"));
+
+        // When
+        SoccerScoreDto score = scoreClient.fetchScore("event-1");
+
+        // Then
+        assertEquals(new SoccerScoreDto("event-1", "2:1"), score);
+    }
+
+    @Test
+    void shouldDecodeBulkScores() {
+        // Given
+        server.createContext("/scores", exchange -> respond(exchange, 200,
+                "[{\"eventId\":\"event-1\",\"currentScore\":\"1:0\"},{\"eventId\":\"event-2\",\"currentScore\":\"0:0\"}]"));
+
+        // When
+        Optional<List<SoccerScoreDto>> scores = scoreClient.fetchScores(List.of("event-1", "event-2"));
+
+        // Then
+        assertEquals(Optional.of(List.of(new SoccerScoreDto("event-1", "1:0"), new SoccerScoreDto("event-2", "0:0"))), scores);
+    }
+
+    @Test
+    void shouldReturnEmptyWhenBulkRouteIsMissing() {
+        // When
+        Optional<List<SoccerScoreDto>> scores = scoreClient.fetchScores(List.of("event-1"));
+
+        // Then
+        assertTrue(scores.isEmpty());
+    }
+
+    @Test
+    void shouldFailWhenUpstreamDoesNotAnswerInTime() {
+        // Given
+        server.createContext("/event-1/score", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+
+        // When & Then
+        assertThrows(UncheckedIOException.class, () -> scoreClient.fetchScore("event-1"));
+    }
+
+    @Test
+    void shouldFailWhenResponseBodyStalls() {
+        // Given: the headers arrive at once but the body never completes
+        server.createContext("/event-1/score", exchange -> {
+            exchange.sendResponseHeaders(200, 64);
+            exchange.getResponseBody().write("{\"eventId\":".getBytes(StandardCharsets.UTF_8));
+            exchange.getResponseBody().flush();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+
+        // When & Then
+        assertTimeoutPreemptively(Duration.ofMillis(800),
+                () -> assertThrows(UncheckedIOException.class, () -> scoreClient.fetchScore("event-1")));
+    }
+
+    @Test
+    void shouldFailWithStatusOfUnsuccessfulResponse() {
+        // Given
+        server.createContext("/event-1/score", exchange -> respond(exchange, 503, "{\"error\":\"unavailable\"}"));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> scoreClient.fetchScore("event-1"));
+        assertEquals("Soccer server returned status 503", exception.getMessage());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.sporty.homework.event_publisher.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void shouldHaveNoOwnerWithoutNodes() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(), 128);
+
+        // When & Then
+        assertNull(ring.owner("event-1"));
+    }
+
+    @Test
+    void shouldSpreadEventsEvenlyOverNodes() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        Map<String, Integer> owned = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 30000; i++) {
+            owned.merge(ring.owner("match-" + i), 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(3, owned.size());
+        owned.values().forEach(count -> assertTrue(count > 7000 && count < 13000, "Uneven share: " + owned));
+    }
+
+    @Test
+    void shouldOnlyMoveEventsOfTheJoiningNode() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-c", "node-a", "node-b"), 128);
+
+        // When & Then
+        for (int i = 0; i < 10000; i++) {
+            String eventId = "match-" + i;
+            String owner = after.owner(eventId);
+            if (!owner.equals("node-c")) {
+                assertEquals(before.owner(eventId), owner);
+            }
+        }
+    }
+}
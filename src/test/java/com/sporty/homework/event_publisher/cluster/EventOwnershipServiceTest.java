@@ -0,0 +1,263 @@
+package com.sporty.homework.event_publisher.cluster;
+
+import com.sporty.homework.event_publisher.dao.EventDao;
+import com.sporty.homework.event_publisher.dao.NodeDao;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.enums.EventStatus;
+import com.sporty.homework.event_publisher.model.Event;
+import com.sporty.homework.event_publisher.scheduler.ScheduledJobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventOwnershipServiceTest {
+
+    @Mock
+    private NodeDao nodeDao;
+
+    @Mock
+    private EventDao eventDao;
+
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
+    private EventOwnershipService ownershipService;
+
+    @BeforeEach
+    void setUp() {
+        ownershipService = new EventOwnershipService(nodeDao, eventDao, scheduledJobService, "node-a", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ownershipService, "enabled", true);
+    }
+
+    @Test
+    void shouldOwnEveryEventWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(ownershipService, "enabled", false);
+
+        // When & Then
+        assertTrue(ownershipService.isOwnedLocally("event-1"));
+        ownershipService.heartbeat();
+        verifyNoInteractions(nodeDao);
+    }
+
+    @Test
+    void shouldOwnNothingBeforeTheFirstHeartbeat() {
+        // When & Then
+        assertFalse(ownershipService.isOwnedLocally("event-1"));
+    }
+
+    @Test
+    void shouldStartAllLiveEventsWhenAlone() {
+        // Given
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of(liveEvent("event-1", EventPriority.PREMIUM), liveEvent("event-2", null)));
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(nodeDao).renewLease("node-a", 15000);
+        verify(scheduledJobService).startJobs(Map.of("event-1", EventPriority.PREMIUM, "event-2", EventPriority.STANDARD));
+        assertTrue(ownershipService.isOwnedLocally("event-1"));
+    }
+
+    @Test
+    void shouldTakeOverEventsOfLivePeerOneHeartbeatLater() {
+        // Given
+        List<Event> events = IntStream.range(0, 50).mapToObj(i -> liveEvent("event-" + i, EventPriority.STANDARD)).toList();
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a", "node-b"));
+        givenLiveEvents(events);
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(scheduledJobService, never()).startJobs(anyMap());
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        long owned = events.stream().filter(event -> ownershipService.isOwnedLocally(event.getEventId())).count();
+        assertTrue(owned > 0 && owned < events.size());
+        verify(scheduledJobService).startJobs(argThat(jobs -> jobs.size() == owned));
+    }
+
+    @Test
+    void shouldTakeOverEventsOfDeadPeerRightAway() {
+        // Given
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a", "node-b"), List.of("node-a"));
+        givenLiveEvents(List.of());
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+        ownershipService.heartbeat();
+        List<Event> events = IntStream.range(0, 50).mapToObj(i -> liveEvent("event-" + i, EventPriority.STANDARD)).toList();
+        givenLiveEvents(events);
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(scheduledJobService).startJobs(argThat(jobs -> jobs.size() == events.size()));
+    }
+
+    @Test
+    void shouldNotWalkLiveEventsAgainWhileRingIsUnchanged() {
+        // Given
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of(liveEvent("event-1", EventPriority.STANDARD)));
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+        ownershipService.heartbeat();
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(nodeDao, times(2)).renewLease("node-a", 15000);
+        verify(eventDao, times(1)).forEachLiveEventBatch(anyInt(), any());
+    }
+
+    @Test
+    void shouldWalkLiveEventsAgainOnceFullReconcileIsDue() {
+        // Given
+        ReflectionTestUtils.setField(ownershipService, "fullReconcileIntervalMs", 0L);
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of(liveEvent("event-1", EventPriority.STANDARD)));
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+        ownershipService.heartbeat();
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(eventDao, times(2)).forEachLiveEventBatch(anyInt(), any());
+    }
+
+    @Test
+    void shouldStopJobsOfEventsNoLongerOwnedOrLive() {
+        // Given
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of(liveEvent("event-1", EventPriority.STANDARD)));
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of("event-1", "event-2"));
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(scheduledJobService).stopJob("event-2");
+        verify(scheduledJobService, never()).stopJob("event-1");
+    }
+
+    @Test
+    void shouldStopAllJobsWhenLeaseCannotBeRenewed() {
+        // Given
+        ReflectionTestUtils.setField(ownershipService, "leaseMs", 0L);
+        doThrow(new IllegalStateException("database down")).when(nodeDao).renewLease("node-a", 0L);
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of("event-1"));
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(scheduledJobService).stopJob("event-1");
+        assertFalse(ownershipService.isOwnedLocally("event-1"));
+    }
+
+    @Test
+    void shouldStopAllJobsWhenLessThanOneHeartbeatOfLeaseIsLeft() {
+        // Given: a renewal that succeeds but leaves less lease than the next heartbeat needs
+        ReflectionTestUtils.setField(ownershipService, "leaseMs", 4000L);
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of(liveEvent("event-1", EventPriority.STANDARD)));
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of("event-1"));
+
+        // When
+        ownershipService.heartbeat();
+
+        // Then
+        verify(scheduledJobService).stopJob("event-1");
+        assertFalse(ownershipService.isOwnedLocally("event-1"));
+    }
+
+    @Test
+    void shouldStartOwnedEventSetLiveThroughAnotherNode() {
+        // Given
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of());
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+        ownershipService.heartbeat();
+        when(eventDao.findByEventId("event-1")).thenReturn(liveEvent("event-1", EventPriority.PREMIUM));
+        when(scheduledJobService.isJobRunning("event-1")).thenReturn(false);
+
+        // When
+        ownershipService.reconcileEvent("event-1");
+
+        // Then
+        verify(scheduledJobService).startJob("event-1", EventPriority.PREMIUM);
+    }
+
+    @Test
+    void shouldStopOwnedEventSetNotLiveThroughAnotherNode() {
+        // Given
+        when(nodeDao.findLiveNodeIds()).thenReturn(List.of("node-a"));
+        givenLiveEvents(List.of());
+        when(scheduledJobService.getScheduledEventIds()).thenReturn(Set.of());
+        ownershipService.heartbeat();
+        Event event = liveEvent("event-1", EventPriority.STANDARD);
+        event.setStatus(EventStatus.NOT_LIVE);
+        when(eventDao.findByEventId("event-1")).thenReturn(event);
+        when(scheduledJobService.isJobRunning("event-1")).thenReturn(true);
+
+        // When
+        ownershipService.reconcileEvent("event-1");
+
+        // Then
+        verify(scheduledJobService).stopJob("event-1");
+        verify(scheduledJobService, never()).startJob(anyString(), any());
+    }
+
+    @Test
+    void shouldNotStartLiveEventOwnedByAnotherNode() {
+        // Given: no heartbeat yet, so this node owns nothing
+        when(eventDao.findByEventId("event-1")).thenReturn(liveEvent("event-1", EventPriority.STANDARD));
+        when(scheduledJobService.isJobRunning("event-1")).thenReturn(false);
+
+        // When
+        ownershipService.reconcileEvent("event-1");
+
+        // Then
+        verify(scheduledJobService, never()).startJob(anyString(), any());
+        verify(scheduledJobService, never()).stopJob(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenLiveEvents(List<Event> events) {
+        doAnswer(invocation -> {
+            ((Consumer<List<Event>>) invocation.getArgument(1)).accept(events);
+            return events.size();
+        }).when(eventDao).forEachLiveEventBatch(anyInt(), any());
+    }
+
+    private static Event liveEvent(String eventId, EventPriority priority) {
+        Event event = new Event();
+        event.setEventId(eventId);
+        event.setStatus(EventStatus.LIVE);
+        event.setPriority(priority);
+        return event;
+    }
+}
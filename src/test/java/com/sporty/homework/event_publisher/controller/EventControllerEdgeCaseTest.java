@@ -42,7 +42,7 @@ class EventControllerEdgeCaseTest {
                    response.getBody().containsKey("error"));
         assertTrue("Error message should be about null status", 
                    response.getBody().get("error").contains("Status cannot be null"));
-        verify(eventService, never()).updateEventStatus(any(), any());
+        verify(eventService, never()).updateEventStatus(any(), any(), any());
     }
 
     @Test
@@ -57,7 +57,7 @@ class EventControllerEdgeCaseTest {
         UpdateEventStatusDto updateEventStatusDto = new UpdateEventStatusDto(EventStatus.LIVE);
         
         doThrow(new IllegalArgumentException("Invalid status")).when(eventService)
-            .updateEventStatus(eq(eventId), any(EventStatus.class));
+            .updateEventStatus(eq(eventId), any(EventStatus.class), isNull());
 
         // When
         ResponseEntity<Map<String, String>> response = eventController.updateEventStatus(eventId, updateEventStatusDto);
@@ -66,6 +66,6 @@ class EventControllerEdgeCaseTest {
         assertEquals(400, response.getStatusCodeValue());
         assertTrue("Response should contain error message", 
                    response.getBody().containsKey("error"));
-        verify(eventService).updateEventStatus(eq(eventId), eq(EventStatus.LIVE));
+        verify(eventService).updateEventStatus(eq(eventId), eq(EventStatus.LIVE), isNull());
     }
 }
\ No newline at end of file
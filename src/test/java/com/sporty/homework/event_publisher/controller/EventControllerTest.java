@@ -59,7 +59,7 @@ class EventControllerTest {
         // Then
         assertEquals(200, response.getStatusCodeValue());
         assertTrue(response.getBody().containsKey("message"));
-        verify(eventService).updateEventStatus(eventId, EventStatus.NOT_LIVE);
+        verify(eventService).updateEventStatus(eventId, EventStatus.NOT_LIVE, null);
     }
 
     @Test
@@ -92,4 +92,29 @@ class EventControllerTest {
         assertNull(response.getBody());
         verify(eventService).findEventById(eventId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnCurrentPollIntervalOfLiveEvent() {
+        // Given
+        when(eventService.findPollIntervalMs("event-123")).thenReturn(2000L);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = eventController.getPollInterval("event-123");
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(2000L, response.getBody().get("pollIntervalMs"));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenEventIsNotPolled() {
+        // Given
+        when(eventService.findPollIntervalMs("event-123")).thenReturn(null);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = eventController.getPollInterval("event-123");
+
+        // Then
+        assertEquals(404, response.getStatusCodeValue());
+    }
+}
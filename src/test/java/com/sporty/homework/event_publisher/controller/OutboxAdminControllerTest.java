@@ -0,0 +1,83 @@
+package com.sporty.homework.event_publisher.controller;
+
+import com.sporty.homework.event_publisher.dto.ReplayRequestDto;
+import com.sporty.homework.event_publisher.service.OutboxReplayService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxAdminControllerTest {
+
+    @Mock
+    private OutboxReplayService outboxReplayService;
+
+    @InjectMocks
+    private OutboxAdminController outboxAdminController;
+
+    @Test
+    void shouldStartReplayOfMatchingMessages() {
+        // Given
+        ReplayRequestDto filter = new ReplayRequestDto("event-123", null, null, null, null);
+        when(outboxReplayService.countReplayable(filter)).thenReturn(42L);
+        when(outboxReplayService.startReplay(filter)).thenReturn(true);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = outboxAdminController.replay(filter);
+
+        // Then
+        assertEquals(202, response.getStatusCodeValue());
+        assertEquals(42L, response.getBody().get("matched"));
+    }
+
+    @Test
+    void shouldNotStartReplayWhenNothingMatches() {
+        // Given
+        when(outboxReplayService.countReplayable(any())).thenReturn(0L);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = outboxAdminController.replay(null);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        verify(outboxReplayService, never()).startReplay(any());
+    }
+
+    @Test
+    void shouldRejectReplayWhileAnotherIsRunning() {
+        // Given
+        ReplayRequestDto filter = new ReplayRequestDto(null, null, null, 100L, 200L);
+        when(outboxReplayService.countReplayable(filter)).thenReturn(5L);
+        when(outboxReplayService.startReplay(filter)).thenReturn(false);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = outboxAdminController.replay(filter);
+
+        // Then
+        assertEquals(409, response.getStatusCodeValue());
+    }
+
+    @Test
+    void shouldRejectEmptyTimeWindow() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        ReplayRequestDto filter = new ReplayRequestDto(null, now, now.minusHours(1), null, null);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = outboxAdminController.replay(filter);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        verifyNoInteractions(outboxReplayService);
+    }
+}
@@ -1,5 +1,6 @@
 package com.sporty.homework.event_publisher.dao;
 
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import com.sporty.homework.event_publisher.model.Event;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,9 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -99,4 +103,40 @@ class EventDaoFunctionalTest {
         Event nonExistentEvent = eventDao.findByEventId("non-existent");
         assertNull(nonExistentEvent);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEventPriority() {
+        // Events default to the STANDARD tier
+        eventDao.insertEvent("event-standard", EventStatus.LIVE);
+        assertEquals(EventPriority.STANDARD, eventDao.findByEventId("event-standard").getPriority());
+
+        eventDao.insertEvent("event-premium", EventStatus.LIVE, EventPriority.PREMIUM);
+        assertEquals(EventPriority.PREMIUM, eventDao.findByEventId("event-premium").getPriority());
+
+        eventDao.updateEventPriority("event-premium", EventPriority.LOW);
+        assertEquals(EventPriority.LOW, eventDao.findByEventId("event-premium").getPriority());
+    }
+
+    @Test
+    void testForEachLiveEventBatch() {
+        eventDao.insertEvent("stream-live-1", EventStatus.LIVE);
+        eventDao.insertEvent("stream-live-2", EventStatus.LIVE, EventPriority.PREMIUM);
+        eventDao.insertEvent("stream-live-3", EventStatus.LIVE);
+        eventDao.insertEvent("stream-not-live", EventStatus.NOT_LIVE);
+
+        // Events are handed over in batches of at most the batch size
+        List<List<Event>> batches = new ArrayList<>();
+        int count = eventDao.forEachLiveEventBatch(2, batches::add);
+
+        List<Event> events = batches.stream().flatMap(List::stream).toList();
+        assertEquals(count, events.size());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2));
+        assertTrue(events.stream().allMatch(event -> event.getStatus() == EventStatus.LIVE));
+
+        List<String> eventIds = events.stream().map(Event::getEventId).toList();
+        assertTrue(eventIds.containsAll(List.of("stream-live-1", "stream-live-2", "stream-live-3")));
+        assertFalse(eventIds.contains("stream-not-live"));
+        assertEquals(EventPriority.PREMIUM, events.stream()
+                .filter(event -> event.getEventId().equals("stream-live-2")).findFirst().orElseThrow().getPriority());
+    }
+}
@@ -1,8 +1,11 @@
 package com.sporty.homework.event_publisher.dao;
 
+import com.sporty.homework.event_publisher.dto.ReplayRequestDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
 import com.sporty.homework.event_publisher.model.Message;
+import org.jdbi.v3.core.Jdbi;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +18,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +47,9 @@ class MessageDaoFunctionalTest {
     @Autowired
     private EventDao eventDao;
 
+    @Autowired
+    private Jdbi jdbi;
+
     @Test
     void testInsertMessage() {
         eventDao.insertEvent("event-123", EventStatus.LIVE);
@@ -110,7 +117,7 @@ class MessageDaoFunctionalTest {
 
         // Mark the message as failed
         LocalDateTime now = LocalDateTime.now();
-        messageDao.markMessageAsFailed(messageId, MessageStatus.FAILED, now);
+        messageDao.markMessageAsFailed(messageId, MessageStatus.FAILED, now, now);
 
         // Verify the update by finding pending messages (should not include our updated message)
         List<Message> pendingMessages = messageDao.findPendingMessages();
@@ -181,7 +188,7 @@ class MessageDaoFunctionalTest {
         failedMessage1.setCreatedAt(LocalDateTime.now());
         failedMessage1.setRetryCount(1); // Less than 5 retries
         Long failedId1 = messageDao.insertMessage(failedMessage1);
-        messageDao.markMessageAsFailed(failedId1, MessageStatus.FAILED, LocalDateTime.now());
+        messageDao.markMessageAsFailed(failedId1, MessageStatus.FAILED, LocalDateTime.now(), LocalDateTime.now());
 
         Message failedMessage2 = new Message();
         failedMessage2.setEventId("failed-2");
@@ -191,7 +198,7 @@ class MessageDaoFunctionalTest {
         failedMessage2.setCreatedAt(LocalDateTime.now());
         failedMessage2.setRetryCount(3); // Less than 5 retries
         Long failedId2 = messageDao.insertMessage(failedMessage2);
-        messageDao.markMessageAsFailed(failedId2, MessageStatus.FAILED, LocalDateTime.now());
+        messageDao.markMessageAsFailed(failedId2, MessageStatus.FAILED, LocalDateTime.now(), LocalDateTime.now());
 
         // This one has exceeded retry count, so shouldn't appear in findFailedMessages
         Message permanentlyFailedMessage = new Message();
@@ -213,4 +220,187 @@ class MessageDaoFunctionalTest {
         assertTrue(failedMessages.stream().anyMatch(m -> m.getPayload().contains("failed-2")));
         assertFalse(failedMessages.stream().anyMatch(m -> m.getId().equals(permFailedId)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testClaimPendingMessagesSkipsRowsLockedByAnotherTransaction() {
+        eventDao.insertEvent("claim-1", EventStatus.LIVE);
+        eventDao.insertEvent("claim-2", EventStatus.LIVE);
+        for (String eventId : List.of("claim-1", "claim-2")) {
+            Message message = new Message();
+            message.setEventId(eventId);
+            message.setEventType("EVENT_SCORE_UPDATE");
+            message.setPayload("{\"eventId\":\"" + eventId + "\",\"currentScore\":\"0:0\"}");
+            message.setStatus(MessageStatus.PENDING);
+            message.setCreatedAt(LocalDateTime.now());
+            message.setRetryCount(0);
+            messageDao.insertMessage(message);
+        }
+
+        jdbi.useTransaction(handle -> {
+            // First relay claims a single row and keeps it locked
+            List<Message> firstClaim = handle.attach(MessageDao.class).claimPendingMessages(1);
+            assertEquals(1, firstClaim.size());
+
+            // A concurrent relay on another connection must not see the locked row
+            List<Message> secondClaim = messageDao.claimPendingMessages(1000);
+            assertFalse(secondClaim.isEmpty());
+            assertTrue(secondClaim.stream().noneMatch(m -> m.getId().equals(firstClaim.get(0).getId())));
+        });
+    }
+
+    @Test
+    void testMarkSupersededMessagesKeepsOnlyNewestPerEvent() {
+        eventDao.insertEvent("coalesce-1", EventStatus.LIVE);
+        Long oldestId = null;
+        Long newestId = null;
+        for (String score : List.of("0:0", "1:0", "2:0")) {
+            Message message = new Message();
+            message.setEventId("coalesce-1");
+            message.setEventType("EVENT_SCORE_UPDATE");
+            message.setPayload("{\"eventId\":\"coalesce-1\",\"currentScore\":\"" + score + "\"}");
+            message.setStatus(MessageStatus.PENDING);
+            message.setCreatedAt(LocalDateTime.now());
+            message.setRetryCount(0);
+            newestId = messageDao.insertMessage(message);
+            if (oldestId == null) {
+                oldestId = newestId;
+            }
+        }
+
+        int superseded = messageDao.markSupersededMessages(List.of("EVENT_SCORE_UPDATE"), LocalDateTime.now());
+
+        assertEquals(2, superseded);
+        List<Message> pendingMessages = messageDao.findPendingMessages();
+        Long finalNewestId = newestId;
+        Long finalOldestId = oldestId;
+        assertTrue(pendingMessages.stream().anyMatch(m -> m.getId().equals(finalNewestId)));
+        assertTrue(pendingMessages.stream().noneMatch(m -> m.getId().equals(finalOldestId)));
+        assertTrue(messageDao.findMessagesByStatus(MessageStatus.SUPERSEDED).stream()
+                .anyMatch(m -> m.getId().equals(finalOldestId)));
+    }
+
+    @Test
+    void testClaimPendingMessagesServesHigherPriorityFirst() {
+        eventDao.insertEvent("priority-low", EventStatus.LIVE, EventPriority.LOW);
+        eventDao.insertEvent("priority-premium", EventStatus.LIVE, EventPriority.PREMIUM);
+        for (EventPriority priority : List.of(EventPriority.LOW, EventPriority.PREMIUM)) {
+            Message message = new Message();
+            message.setEventId("priority-" + priority.name().toLowerCase());
+            message.setEventType("EVENT_SCORE_UPDATE");
+            message.setPayload("{\"eventId\":\"priority\",\"currentScore\":\"0:0\"}");
+            message.setStatus(MessageStatus.PENDING);
+            message.setCreatedAt(LocalDateTime.now());
+            message.setRetryCount(0);
+            message.setPriority(priority.rank());
+            messageDao.insertMessage(message);
+        }
+
+        List<Message> claimed = jdbi.inTransaction(handle -> handle.attach(MessageDao.class).claimPendingMessages(1000));
+
+        List<String> claimedEvents = claimed.stream()
+                .map(Message::getEventId)
+                .filter(eventId -> eventId.startsWith("priority-"))
+                .toList();
+        assertEquals(List.of("priority-premium", "priority-low"), claimedEvents);
+    }
+
+    @Test
+    void testInsertMessagesReturnsIdsInOrder() {
+        eventDao.insertEvent("event-batch", EventStatus.LIVE);
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Message message = new Message();
+            message.setEventId("event-batch");
+            message.setEventType("EVENT_SCORE_UPDATE");
+            message.setPayload("{\"eventId\":\"event-batch\",\"currentScore\":\"" + i + ":0\"}");
+            message.setStatus(MessageStatus.PENDING);
+            message.setCreatedAt(LocalDateTime.now());
+            message.setRetryCount(0);
+            messages.add(message);
+        }
+
+        List<Long> ids = messageDao.insertMessages(messages);
+
+        // One id per message, and each id belongs to the message at the same position
+        assertEquals(5, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            String payload = jdbi.withHandle(handle -> handle.createQuery("SELECT payload::text FROM message_outbox WHERE id = :id")
+                    .bind("id", id).mapTo(String.class).one());
+            assertTrue(payload.contains("\"" + i + ":0\""));
+        }
+    }
+
+    @Test
+    void testResetForReplayOnlyResetsMatchingPermanentlyFailedMessages() {
+        eventDao.insertEvent("event-replay", EventStatus.LIVE);
+        eventDao.insertEvent("event-other", EventStatus.LIVE);
+        Long first = insertPermanentlyFailed("event-replay");
+        Long second = insertPermanentlyFailed("event-replay");
+        Long other = insertPermanentlyFailed("event-other");
+        ReplayRequestDto filter = new ReplayRequestDto("event-replay", null, null, null, null);
+
+        assertEquals(2, messageDao.countReplayableMessages(filter));
+        List<Long> firstBatch = messageDao.resetForReplay(filter, 0L, 1);
+        List<Long> secondBatch = messageDao.resetForReplay(filter, firstBatch.get(0), 1);
+
+        // Keyset batches walk the matching rows by id, rows of other events are left alone
+        assertEquals(List.of(first), firstBatch);
+        assertEquals(List.of(second), secondBatch);
+        assertEquals(0, messageDao.countReplayableMessages(filter));
+        List<Long> pendingIds = messageDao.findPendingMessages().stream().map(Message::getId).toList();
+        assertTrue(pendingIds.containsAll(List.of(first, second)));
+        assertFalse(pendingIds.contains(other));
+    }
+
+    @Test
+    void testClaimUndeadLetteredMessagesSkipsMessagesAlreadyOnDeadLetterTopic() {
+        eventDao.insertEvent("event-dlt", EventStatus.LIVE);
+        Long deadLettered = insertPermanentlyFailed("event-dlt");
+        Long owed = insertPermanentlyFailed("event-dlt");
+        messageDao.markDeadLettered(List.of(deadLettered), LocalDateTime.now());
+
+        List<Long> claimed = jdbi.inTransaction(handle -> handle.attach(MessageDao.class).claimUndeadLetteredMessages(100))
+                .stream().map(Message::getId).toList();
+
+        assertTrue(claimed.contains(owed));
+        assertFalse(claimed.contains(deadLettered));
+    }
+
+    @Test
+    void testClaimForSendOnlySucceedsOnceAndHidesRowFromRelay() {
+        eventDao.insertEvent("event-claim", EventStatus.LIVE);
+        Message message = new Message();
+        message.setEventId("event-claim");
+        message.setEventType("EVENT_SCORE_UPDATE");
+        message.setPayload("{\"eventId\":\"event-claim\",\"currentScore\":\"1:0\"}");
+        message.setStatus(MessageStatus.PENDING);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setRetryCount(0);
+        Long messageId = messageDao.insertMessage(message);
+
+        assertTrue(messageDao.claimForSend(messageId));
+        assertFalse(messageDao.claimForSend(messageId));
+
+        // A freshly claimed row is the publisher's, the relay leaves it alone
+        assertTrue(messageDao.findPendingMessages().stream().noneMatch(m -> m.getId().equals(messageId)));
+
+        // A claim older than the staleness window is taken to be orphaned and relayed again
+        jdbi.useHandle(handle -> handle.execute(
+                "UPDATE message_outbox SET last_attempt_at = LOCALTIMESTAMP - INTERVAL '2 minutes' WHERE id = ?", messageId));
+        assertTrue(messageDao.findPendingMessages().stream().anyMatch(m -> m.getId().equals(messageId)));
+    }
+
+    private Long insertPermanentlyFailed(String eventId) {
+        Message message = new Message();
+        message.setEventId(eventId);
+        message.setEventType("EVENT_SCORE_UPDATE");
+        message.setPayload("{\"eventId\":\"" + eventId + "\",\"currentScore\":\"1:0\"}");
+        message.setStatus(MessageStatus.PENDING);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setRetryCount(0);
+        Long id = messageDao.insertMessage(message);
+        messageDao.updateMessageStatus(id, MessageStatus.PERMANENTLY_FAILED, LocalDateTime.now());
+        return id;
+    }
+}
@@ -0,0 +1,111 @@
+package com.sporty.homework.event_publisher.dao;
+
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers
+class NodeDaoFunctionalTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private NodeDao nodeDao;
+
+    @Autowired
+    private Jdbi jdbi;
+
+    @BeforeEach
+    void setUp() {
+        jdbi.useHandle(handle -> handle.execute("DELETE FROM publisher_node"));
+    }
+
+    @Test
+    void shouldListNodesWithValidLeaseOnly() {
+        // Given
+        nodeDao.renewLease("node-b", 60000);
+        nodeDao.renewLease("node-a", 60000);
+        nodeDao.renewLease("node-c", 60000);
+        jdbi.useHandle(handle -> handle.execute("UPDATE publisher_node SET lease_expires_at = now() - INTERVAL '1 second' WHERE node_id = 'node-c'"));
+
+        // When
+        List<String> liveNodeIds = nodeDao.findLiveNodeIds();
+
+        // Then
+        assertEquals(List.of("node-a", "node-b"), liveNodeIds);
+    }
+
+    @Test
+    void shouldExtendLeaseOnRenewal() {
+        // Given
+        nodeDao.renewLease("node-a", 60000);
+        jdbi.useHandle(handle -> handle.execute("UPDATE publisher_node SET lease_expires_at = now() - INTERVAL '1 second'"));
+
+        // When
+        nodeDao.renewLease("node-a", 60000);
+
+        // Then
+        assertEquals(List.of("node-a"), nodeDao.findLiveNodeIds());
+    }
+
+    @Test
+    void shouldAgreeOnLeasesAcrossSessionTimeZones() {
+        // Given: a node whose session runs ten hours behind UTC
+        jdbi.useHandle(handle -> {
+            handle.execute("SET TIME ZONE 'Pacific/Honolulu'");
+            handle.attach(NodeDao.class).renewLease("node-a", 60000);
+            handle.execute("RESET TIME ZONE");
+        });
+
+        // When
+        List<String> liveNodeIds = jdbi.withHandle(handle -> {
+            handle.execute("SET TIME ZONE 'UTC'");
+            List<String> ids = handle.attach(NodeDao.class).findLiveNodeIds();
+            handle.execute("RESET TIME ZONE");
+            return ids;
+        });
+
+        // Then
+        assertEquals(List.of("node-a"), liveNodeIds);
+    }
+
+    @Test
+    void shouldDeleteNodesExpiredLongerThanGracePeriod() {
+        // Given
+        nodeDao.renewLease("node-a", 60000);
+        nodeDao.renewLease("node-b", 60000);
+        jdbi.useHandle(handle -> handle.execute("UPDATE publisher_node SET lease_expires_at = now() - INTERVAL '2 hours' WHERE node_id = 'node-b'"));
+
+        // When
+        int deleted = nodeDao.deleteExpiredNodes(3600000);
+        nodeDao.deleteNode("node-a");
+
+        // Then
+        assertEquals(1, deleted);
+        assertEquals(0, jdbi.withHandle(handle -> handle.createQuery("SELECT COUNT(*) FROM publisher_node").mapTo(Integer.class).one()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.sporty.homework.event_publisher.dao;
+
+import com.sporty.homework.event_publisher.enums.EventStatus;
+import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.model.Message;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers
+class OutboxPartitionDaoFunctionalTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OutboxPartitionDao outboxPartitionDao;
+
+    @Autowired
+    private MessageDao messageDao;
+
+    @Autowired
+    private EventDao eventDao;
+
+    @Autowired
+    private Jdbi jdbi;
+
+    @Test
+    void shouldPartitionOutboxByDayWithDefaultPartition() {
+        // When
+        List<String> partitions = outboxPartitionDao.findPartitionNames();
+
+        // Then: the migrations and the startup maintenance leave today's and the default partition
+        assertTrue(partitions.contains("message_outbox_default"));
+        assertTrue(partitions.contains(partitionName(LocalDate.now())));
+        String strategy = jdbi.withHandle(handle -> handle.createQuery(
+                        "SELECT p.partstrat FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                        "WHERE c.relname = 'message_outbox'")
+                .mapTo(String.class)
+                .one());
+        assertEquals("r", strategy);
+    }
+
+    @Test
+    void shouldCreatePartitionOnceAndListIt() {
+        // Given
+        LocalDate day = LocalDate.of(2001, 1, 10);
+
+        // When
+        String created = outboxPartitionDao.createPartition(day);
+        String createdAgain = outboxPartitionDao.createPartition(day);
+
+        // Then
+        assertEquals(partitionName(day), created);
+        assertEquals(created, createdAgain);
+        assertEquals(1, outboxPartitionDao.findPartitionNames().stream().filter(created::equals).count());
+    }
+
+    @Test
+    void shouldMoveRowsOutOfDefaultPartitionWhenTheirDayIsCreated() {
+        // Given: a row written for a day without a partition
+        LocalDate day = LocalDate.of(2001, 2, 10);
+        eventDao.insertEvent("event-partition-default", EventStatus.LIVE);
+        Long messageId = insertMessage("event-partition-default", day.atTime(12, 0));
+        assertEquals("message_outbox_default", partitionOf(messageId));
+
+        // When
+        String partition = outboxPartitionDao.createPartition(day);
+
+        // Then: the row lives in its day's partition and is still updated through the parent
+        assertEquals(partition, partitionOf(messageId));
+        messageDao.updateMessageStatus(messageId, MessageStatus.SENT, LocalDateTime.now());
+        assertFalse(outboxPartitionDao.hasUnsentMessages(partition));
+    }
+
+    @Test
+    void shouldOnlyCountRowsStillOwedToKafkaAsUnsent() {
+        // Given
+        LocalDate day = LocalDate.of(2001, 3, 10);
+        String partition = outboxPartitionDao.createPartition(day);
+        eventDao.insertEvent("event-partition-unsent", EventStatus.LIVE);
+        Long messageId = insertMessage("event-partition-unsent", day.atTime(12, 0));
+
+        // When / Then
+        assertTrue(outboxPartitionDao.hasUnsentMessages(partition));
+
+        messageDao.updateMessageStatus(messageId, MessageStatus.PERMANENTLY_FAILED, LocalDateTime.now());
+        assertTrue(outboxPartitionDao.hasUnsentMessages(partition));
+
+        messageDao.markDeadLettered(List.of(messageId), LocalDateTime.now());
+        assertFalse(outboxPartitionDao.hasUnsentMessages(partition));
+    }
+
+    @Test
+    void shouldDetachAndDropPartition() {
+        // Given
+        String detached = outboxPartitionDao.createPartition(LocalDate.of(2001, 4, 10));
+        String dropped = outboxPartitionDao.createPartition(LocalDate.of(2001, 4, 11));
+
+        // When
+        outboxPartitionDao.detachPartition(detached);
+        outboxPartitionDao.dropPartition(dropped);
+
+        // Then: a detached partition is kept as a plain table
+        List<String> partitions = outboxPartitionDao.findPartitionNames();
+        assertFalse(partitions.contains(detached));
+        assertFalse(partitions.contains(dropped));
+        assertTrue(tableExists(detached));
+        assertFalse(tableExists(dropped));
+        outboxPartitionDao.dropPartition(detached);
+    }
+
+    @Test
+    void shouldOnlyRetirePartitionWithoutUnsentMessages() {
+        // Given
+        LocalDate day = LocalDate.of(2001, 5, 10);
+        String partition = outboxPartitionDao.createPartition(day);
+        eventDao.insertEvent("event-partition-retire", EventStatus.LIVE);
+        Long messageId = insertMessage("event-partition-retire", day.atTime(12, 0));
+
+        // When / Then: the row is re-checked under the partition lock
+        assertFalse(outboxPartitionDao.retirePartition(partition, false));
+        assertTrue(outboxPartitionDao.findPartitionNames().contains(partition));
+
+        messageDao.updateMessageStatus(messageId, MessageStatus.SENT, LocalDateTime.now());
+        assertTrue(outboxPartitionDao.retirePartition(partition, false));
+        assertFalse(tableExists(partition));
+    }
+
+    private Long insertMessage(String eventId, LocalDateTime createdAt) {
+        Message message = new Message();
+        message.setEventId(eventId);
+        message.setEventType("EVENT_SCORE_UPDATE");
+        message.setPayload("{\"eventId\":\"" + eventId + "\",\"currentScore\":\"1:0\"}");
+        message.setStatus(MessageStatus.PENDING);
+        message.setCreatedAt(createdAt);
+        message.setRetryCount(0);
+        return messageDao.insertMessage(message);
+    }
+
+    private String partitionOf(Long messageId) {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT tableoid::regclass::text FROM message_outbox WHERE id = :id")
+                .bind("id", messageId)
+                .mapTo(String.class)
+                .one());
+    }
+
+    private boolean tableExists(String table) {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT to_regclass(:table) IS NOT NULL")
+                .bind("table", table)
+                .mapTo(Boolean.class)
+                .one());
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "message_outbox_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
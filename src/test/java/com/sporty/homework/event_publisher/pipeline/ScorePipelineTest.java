@@ -0,0 +1,143 @@
+package com.sporty.homework.event_publisher.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.enums.PipelineWaitStrategy;
+import com.sporty.homework.event_publisher.model.Message;
+import com.sporty.homework.event_publisher.service.LastPublishedScoreCache;
+import com.sporty.homework.event_publisher.service.OutboxService;
+import com.sporty.homework.event_publisher.service.OutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScorePipelineTest {
+
+    @Mock
+    private MessageDao messageDao;
+
+    @Mock
+    private LastPublishedScoreCache scoreCache;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ScorePipeline scorePipeline;
+
+    // Copies of the persisted messages, slots are reused once the pipeline moves on
+    private final List<Message> persisted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scorePipeline = new ScorePipeline(new OutboxWriter(messageDao, new SimpleMeterRegistry()), scoreCache, outboxService, new ObjectMapper(), meterRegistry,
+                1024, PipelineWaitStrategy.BLOCKING, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scorePipeline.shutdown();
+    }
+
+    @Test
+    void shouldPersistAndPublishAcceptedScores() {
+        // Given
+        when(scoreCache.shouldPublish(anyString(), anyString())).thenReturn(true);
+        givenInsertsSucceed();
+
+        // When
+        scorePipeline.submit("event-1", "1:0", EventPriority.PREMIUM);
+        scorePipeline.submit("event-2", "0:2", EventPriority.STANDARD);
+
+        // Then
+        verify(outboxService, timeout(2000)).publishCommittedMessage(eq("event-1"), contains("\"currentScore\":\"1:0\""), eq(1L));
+        verify(outboxService, timeout(2000)).publishCommittedMessage(eq("event-2"), contains("\"currentScore\":\"0:2\""), anyLong());
+        verify(scoreCache).recordPublished("event-1", "1:0");
+        synchronized (persisted) {
+            Message first = persisted.get(0);
+            assertEquals(MessageStatus.PENDING, first.getStatus());
+            assertEquals(OutboxService.EVENT_SCORE_UPDATE, first.getEventType());
+            assertEquals(EventPriority.PREMIUM.rank(), first.getPriority());
+        }
+    }
+
+    @Test
+    void shouldDropDuplicateAndInvalidScores() {
+        // Given
+        when(scoreCache.shouldPublish("event-1", "1:0")).thenReturn(true, false);
+        when(scoreCache.shouldPublish("event-2", "2:0")).thenReturn(true);
+        givenInsertsSucceed();
+
+        // When
+        scorePipeline.submit("event-1", "1:0", EventPriority.STANDARD);
+        scorePipeline.submit("event-1", "1:0", EventPriority.STANDARD);
+        scorePipeline.submit("event-1", "bad", EventPriority.STANDARD);
+        scorePipeline.submit("event-2", "2:0", EventPriority.STANDARD);
+
+        // Then
+        verify(outboxService, timeout(2000)).publishCommittedMessage(eq("event-2"), anyString(), anyLong());
+        verify(outboxService, times(1)).publishCommittedMessage(eq("event-1"), anyString(), anyLong());
+        assertEquals(1.0, meterRegistry.get("score.pipeline.duplicates").counter().count());
+        assertEquals(1.0, meterRegistry.get("score.pipeline.rejected").counter().count());
+    }
+
+    @Test
+    void shouldReleaseScoresWhoseBatchFailedToPersist() {
+        // Given
+        when(scoreCache.shouldPublish(anyString(), anyString())).thenReturn(true);
+        when(messageDao.insertMessages(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        // When
+        scorePipeline.submit("event-1", "1:0", EventPriority.STANDARD);
+
+        // Then
+        verify(scoreCache, timeout(2000)).evict("event-1");
+        verify(outboxService, never()).publishCommittedMessage(anyString(), anyString(), anyLong());
+        assertEquals(1.0, meterRegistry.get("score.pipeline.failed").counter().count());
+    }
+
+    @Test
+    void shouldExposeQueueDepthPerStage() {
+        // When & Then
+        for (String stage : List.of("validate", "serialize", "persist", "publish")) {
+            assertEquals(0.0, meterRegistry.get("score.pipeline.queue.depth").tag("stage", stage).gauge().value());
+        }
+        assertEquals(1024.0, meterRegistry.get("score.pipeline.remaining-capacity").gauge().value());
+    }
+
+    private void givenInsertsSucceed() {
+        when(messageDao.insertMessages(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            synchronized (persisted) {
+                for (Message message : messages) {
+                    Message copy = new Message();
+                    copy.setEventId(message.getEventId());
+                    copy.setEventType(message.getEventType());
+                    copy.setStatus(message.getStatus());
+                    copy.setPriority(message.getPriority());
+                    persisted.add(copy);
+                }
+                long firstId = persisted.size() - messages.size() + 1;
+                return LongStream.range(firstId, firstId + messages.size()).boxed().toList();
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePollIntervalPolicyTest {
+
+    private final AdaptivePollIntervalPolicy policy =
+            new AdaptivePollIntervalPolicy(10000, 2000, 30000, 1.5, 5000, 15000, 20000, 60000);
+
+    @Test
+    void shouldDropToMinimumIntervalWhenScoreChanged() {
+        // When & Then
+        assertEquals(2000, policy.nextIntervalMs(10000, true, EventPriority.STANDARD));
+        assertEquals(2000, policy.nextIntervalMs(40000, true, EventPriority.LOW));
+    }
+
+    @Test
+    void shouldBackOffUpToMaximumIntervalWhileScoreIsUnchanged() {
+        // When & Then
+        assertEquals(15000, policy.nextIntervalMs(10000, false, EventPriority.STANDARD));
+        assertEquals(30000, policy.nextIntervalMs(25000, false, EventPriority.STANDARD));
+    }
+
+    @Test
+    void shouldBackOffUpToMaximumIntervalOfTheTier() {
+        // When & Then
+        assertEquals(15000, policy.nextIntervalMs(12000, false, EventPriority.PREMIUM));
+        assertEquals(60000, policy.nextIntervalMs(50000, false, EventPriority.LOW));
+    }
+
+    @Test
+    void shouldStartEachTierAtItsInitialInterval() {
+        // When & Then
+        assertEquals(5000, policy.initialIntervalMs(EventPriority.PREMIUM));
+        assertEquals(10000, policy.initialIntervalMs(EventPriority.STANDARD));
+        assertEquals(20000, policy.initialIntervalMs(EventPriority.LOW));
+    }
+
+    @Test
+    void shouldClampInitialIntervalIntoBounds() {
+        // Given
+        AdaptivePollIntervalPolicy narrowPolicy =
+                new AdaptivePollIntervalPolicy(60000, 2000, 30000, 1.5, 1000, 30000, 60000, 30000);
+
+        // When & Then
+        assertEquals(30000, narrowPolicy.initialIntervalMs(EventPriority.STANDARD));
+        assertEquals(2000, narrowPolicy.initialIntervalMs(EventPriority.PREMIUM));
+        assertEquals(30000, narrowPolicy.initialIntervalMs(EventPriority.LOW));
+    }
+
+    @Test
+    void shouldRejectInvertedBounds() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptivePollIntervalPolicy(10000, 30000, 2000, 1.5, 10000, 2000, 10000, 2000));
+    }
+}
@@ -0,0 +1,98 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HashedTimingWheel timingWheel;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Small wheel so periods span several rounds
+        timingWheel = new HashedTimingWheel(10, 8, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timingWheel.shutdown();
+    }
+
+    @Test
+    void shouldRunTaskRepeatedlyAtFixedRate() throws InterruptedException {
+        // Given
+        CountDownLatch runs = new CountDownLatch(3);
+
+        // When
+        timingWheel.scheduleAtFixedRate(runs::countDown, Duration.ofMillis(20), Duration.ofMillis(150));
+
+        // Then
+        assertTrue(runs.await(2, TimeUnit.SECONDS));
+        assertTrue(meterRegistry.get("scheduler.wheel.tick.drift").timer().count() > 0);
+    }
+
+    @Test
+    void shouldStopRunningTaskOnceCancelled() throws InterruptedException {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        HashedTimingWheel.Timeout timeout =
+                timingWheel.scheduleAtFixedRate(runs::incrementAndGet, Duration.ofMillis(10), Duration.ofMillis(30));
+        Thread.sleep(200);
+
+        // When
+        timeout.cancel();
+        Thread.sleep(50);
+        int runsAfterCancel = runs.get();
+        Thread.sleep(200);
+
+        // Then
+        assertTrue(timeout.isCancelled());
+        assertTrue(runsAfterCancel > 0);
+        assertEquals(runsAfterCancel, runs.get());
+        assertEquals(0.0, meterRegistry.get("scheduler.wheel.timeouts").gauge().value());
+    }
+
+    @Test
+    void shouldDispatchKeysDueInSameTickAsOneBatch() throws InterruptedException {
+        // Given
+        BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+        Consumer<List<String>> handler = batches::add;
+
+        // When
+        timingWheel.scheduleAtFixedRate("event-1", handler, Duration.ofMillis(50), Duration.ofSeconds(10));
+        timingWheel.scheduleAtFixedRate("event-2", handler, Duration.ofMillis(50), Duration.ofSeconds(10));
+
+        // Then
+        List<String> batch = batches.poll(2, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        if (batch.size() == 1) {
+            // Both were scheduled across a tick boundary, the other key follows on the next tick
+            batch = List.of(batch.get(0), batches.poll(2, TimeUnit.SECONDS).get(0));
+        }
+        assertEquals(Set.of("event-1", "event-2"), Set.copyOf(batch));
+    }
+
+    @Test
+    void shouldRejectNonPositivePeriod() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> timingWheel.scheduleAtFixedRate(() -> { }, Duration.ZERO, Duration.ZERO));
+    }
+}
@@ -0,0 +1,85 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseAllocatorTest {
+
+    private PhaseAllocator phaseAllocator;
+
+    @BeforeEach
+    void setUp() {
+        phaseAllocator = new PhaseAllocator(10, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldSpreadEventsEvenlyOverBuckets() {
+        // When
+        for (int i = 0; i < 95; i++) {
+            phaseAllocator.assign("event-" + i);
+        }
+
+        // Then
+        assertTrue(phaseAllocator.imbalance() <= 1);
+    }
+
+    @Test
+    void shouldKeepAssignmentOfKnownEvent() {
+        // Given
+        int bucket = phaseAllocator.assign("event-1");
+
+        // When & Then
+        assertEquals(bucket, phaseAllocator.assign("event-1"));
+    }
+
+    @Test
+    void shouldAssignSameBucketForSameEventIdInEmptyAllocator() {
+        // Given
+        PhaseAllocator otherAllocator = new PhaseAllocator(10, new SimpleMeterRegistry());
+
+        // When & Then
+        assertEquals(phaseAllocator.assign("match-42"), otherAllocator.assign("match-42"));
+    }
+
+    @Test
+    void shouldRebalanceWhenAllEventsOfOnePhaseLeave() {
+        // Given
+        Map<String, Integer> buckets = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            buckets.put("event-" + i, phaseAllocator.assign("event-" + i));
+        }
+        int emptied = buckets.get("event-0");
+        buckets.forEach((eventId, bucket) -> {
+            if (bucket == emptied) {
+                phaseAllocator.release(eventId);
+            }
+        });
+        assertTrue(phaseAllocator.imbalance() > 1);
+
+        // When
+        int moves = 0;
+        Optional<PhaseAllocator.Move> move;
+        while ((move = phaseAllocator.rebalance()).isPresent()) {
+            assertEquals(emptied, move.get().bucket());
+            moves++;
+        }
+
+        // Then
+        assertTrue(moves > 0);
+        assertTrue(phaseAllocator.imbalance() <= 1);
+    }
+
+    @Test
+    void shouldPlacePhaseOffsetsInsideInterval() {
+        // When & Then
+        assertEquals(0, phaseAllocator.phaseOffsetMs(0, 10000));
+        assertEquals(9000, phaseAllocator.phaseOffsetMs(9, 10000));
+    }
+}
@@ -1,13 +1,19 @@
 package com.sporty.homework.event_publisher.scheduler;
 
+import com.sporty.homework.event_publisher.client.ScoreClient;
 import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sporty.homework.event_publisher.service.LastPublishedScoreCache;
 import com.sporty.homework.event_publisher.service.OutboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -17,11 +23,28 @@ class ScheduledJobServiceEdgeCaseTest {
     @Mock
     private OutboxService outboxService;
 
+    @Mock
+    private LastPublishedScoreCache scoreCache;
+
+    @Mock
+    private ScoreClient scoreClient;
+
+    private HashedTimingWheel timingWheel;
+
     private ScheduledJobService scheduledJobService;
 
     @BeforeEach
     void setUp() {
-        scheduledJobService = new ScheduledJobService(outboxService);
+        timingWheel = new HashedTimingWheel(100, 512, new SimpleMeterRegistry());
+        scheduledJobService = new ScheduledJobService(outboxService, scoreCache, timingWheel, scoreClient,
+                new AdaptivePollIntervalPolicy(10000, 2000, 30000, 1.5, 10000, 30000, 10000, 30000),
+                new PhaseAllocator(100, new SimpleMeterRegistry()), Optional.empty(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduledJobService.shutdown();
+        timingWheel.shutdown();
     }
 
     @Test
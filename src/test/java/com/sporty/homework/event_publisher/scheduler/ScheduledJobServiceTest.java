@@ -1,7 +1,13 @@
 package com.sporty.homework.event_publisher.scheduler;
 
+import com.sporty.homework.event_publisher.client.ScoreClient;
 import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.pipeline.ScorePipeline;
+import com.sporty.homework.event_publisher.service.LastPublishedScoreCache;
 import com.sporty.homework.event_publisher.service.OutboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,8 +15,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -25,11 +37,31 @@ class ScheduledJobServiceTest {
     @Mock
     private OutboxService outboxService;
 
+    @Mock
+    private LastPublishedScoreCache scoreCache;
+
+    @Mock
+    private ScoreClient scoreClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HashedTimingWheel timingWheel;
+
     private ScheduledJobService scheduledJobService;
 
     @BeforeEach
     void setUp() {
-        scheduledJobService = new ScheduledJobService(outboxService);
+        meterRegistry = new SimpleMeterRegistry();
+        timingWheel = new HashedTimingWheel(100, 512, meterRegistry);
+        scheduledJobService = new ScheduledJobService(outboxService, scoreCache, timingWheel, scoreClient,
+                new AdaptivePollIntervalPolicy(10000, 2000, 30000, 1.5, 10000, 30000, 10000, 30000),
+                new PhaseAllocator(100, meterRegistry), Optional.empty(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduledJobService.shutdown();
+        timingWheel.shutdown();
     }
 
     @Test
@@ -78,4 +110,306 @@ class ScheduledJobServiceTest {
         // For now, we'll verify that the constructor works without errors
         assertNotNull(scheduledJobService);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFetchScoresOfDueEventsThroughBulkRoute() {
+        // Given
+        when(scoreClient.fetchScores(List.of("event-1", "event-2")))
+                .thenReturn(Optional.of(List.of(
+                        new SoccerScoreDto("event-1", "1:0"),
+                        new SoccerScoreDto("event-2", "0:2"))));
+        when(scoreCache.shouldPublish(anyString(), anyString())).thenReturn(true);
+        when(outboxService.saveMessageAndSendToKafka(anyString(), anyString(), any(EventPriority.class))).thenReturn(true);
+
+        // When
+        scheduledJobService.pollScores(List.of("event-1", "event-2"));
+
+        // Then
+        verify(outboxService).saveMessageAndSendToKafka("event-1", "1:0", EventPriority.STANDARD);
+        verify(outboxService).saveMessageAndSendToKafka("event-2", "0:2", EventPriority.STANDARD);
+        verify(scoreCache).recordPublished("event-2", "0:2");
+        verify(scoreClient, never()).fetchScore(anyString());
+    }
+
+    @Test
+    void shouldIgnoreScoresOfUnrequestedEventsInBulkResponse() {
+        // Given
+        when(scoreClient.fetchScores(List.of("event-1")))
+                .thenReturn(Optional.of(List.of(
+                        new SoccerScoreDto("event-1", "1:0"),
+                        new SoccerScoreDto("event-9", "3:3"))));
+        when(scoreCache.shouldPublish("event-1", "1:0")).thenReturn(true);
+        when(outboxService.saveMessageAndSendToKafka("event-1", "1:0", EventPriority.STANDARD)).thenReturn(true);
+
+        // When
+        scheduledJobService.pollScores(List.of("event-1"));
+
+        // Then
+        verify(outboxService).saveMessageAndSendToKafka("event-1", "1:0", EventPriority.STANDARD);
+        verify(outboxService, never()).saveMessageAndSendToKafka(eq("event-9"), anyString(), any());
+        verify(scoreCache, never()).shouldPublish(eq("event-9"), anyString());
+    }
+
+    @Test
+    void shouldFallBackToPerEventPollsWhenBulkRouteIsMissing() {
+        // Given
+        when(scoreClient.fetchScores(anyList())).thenReturn(Optional.empty());
+        when(scoreClient.fetchScore("event-1")).thenReturn(new SoccerScoreDto("event-1", "1:1"));
+        when(scoreCache.shouldPublish("event-1", "1:1")).thenReturn(true);
+
+        // When
+        scheduledJobService.pollScores(List.of("event-1"));
+        scheduledJobService.pollScores(List.of("event-1"));
+
+        // Then
+        verify(outboxService, timeout(1000).times(2)).saveMessageAndSendToKafka("event-1", "1:1", EventPriority.STANDARD);
+        // The missing bulk route is remembered instead of being probed on every tick
+        verify(scoreClient, times(1)).fetchScores(anyList());
+    }
+
+    @Test
+    void shouldNotPublishWhenScoreFetchFails() {
+        // Given
+        when(scoreClient.fetchScore("event-1")).thenThrow(new IllegalStateException("Soccer server returned status 500"));
+
+        // When
+        scheduledJobService.pollScore("event-1");
+
+        // Then
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void shouldShortenPollIntervalOnScoreChangeAndBackOffWhileUnchanged() {
+        // Given
+        scheduledJobService.startJob("event-1");
+        when(scoreClient.fetchScore("event-1")).thenReturn(
+                new SoccerScoreDto("event-1", "0:0"),
+                new SoccerScoreDto("event-1", "1:0"),
+                new SoccerScoreDto("event-1", "1:0"));
+
+        // When & Then
+        assertEquals(10000L, scheduledJobService.getPollIntervalMs("event-1"));
+        scheduledJobService.pollScore("event-1");
+        assertEquals(10000L, scheduledJobService.getPollIntervalMs("event-1"));
+        scheduledJobService.pollScore("event-1");
+        assertEquals(2000L, scheduledJobService.getPollIntervalMs("event-1"));
+        scheduledJobService.pollScore("event-1");
+        assertEquals(3000L, scheduledJobService.getPollIntervalMs("event-1"));
+    }
+
+    @Test
+    void shouldKeepStaggeredJobOnItsPhaseWhenPollIntervalChanges() {
+        // Given
+        ReflectionTestUtils.setField(scheduledJobService, "phaseStaggerEnabled", true);
+        scheduledJobService.startJob("event-1");
+        when(scoreClient.fetchScore("event-1")).thenReturn(
+                new SoccerScoreDto("event-1", "0:0"),
+                new SoccerScoreDto("event-1", "1:0"));
+
+        // When
+        scheduledJobService.pollScore("event-1");
+        scheduledJobService.pollScore("event-1");
+
+        // Then: the job was moved to a new timeout at the new interval, replacing the old one
+        assertEquals(2000L, scheduledJobService.getPollIntervalMs("event-1"));
+        assertTrue(scheduledJobService.isJobRunning("event-1"));
+        assertEquals(1.0, meterRegistry.get("scheduler.wheel.timeouts").gauge().value());
+    }
+
+    @Test
+    void shouldResetPollIntervalWhenJobIsRestarted() {
+        // Given
+        scheduledJobService.startJob("event-1");
+        when(scoreClient.fetchScore("event-1")).thenReturn(
+                new SoccerScoreDto("event-1", "0:0"),
+                new SoccerScoreDto("event-1", "1:0"));
+        scheduledJobService.pollScore("event-1");
+        scheduledJobService.pollScore("event-1");
+
+        // When
+        scheduledJobService.startJob("event-1");
+
+        // Then
+        assertEquals(10000L, scheduledJobService.getPollIntervalMs("event-1"));
+        assertNull(scheduledJobService.getPollIntervalMs("event-2"));
+    }
+
+    @Test
+    void shouldPollPremiumEventsOnTheirOwnIntervalAndRelayThemWithPriority() {
+        // Given
+        scheduledJobService = new ScheduledJobService(outboxService, scoreCache, timingWheel, scoreClient,
+                new AdaptivePollIntervalPolicy(10000, 2000, 30000, 1.5, 5000, 5000, 20000, 60000),
+                new PhaseAllocator(100, new SimpleMeterRegistry()), Optional.empty(), new SimpleMeterRegistry());
+        scheduledJobService.startJob("event-1", EventPriority.PREMIUM);
+        when(scoreClient.fetchScore("event-1")).thenReturn(new SoccerScoreDto("event-1", "1:0"));
+        when(scoreCache.shouldPublish("event-1", "1:0")).thenReturn(true);
+
+        // When
+        scheduledJobService.pollScore("event-1");
+        scheduledJobService.pollScore("event-1");
+
+        // Then
+        assertEquals(5000L, scheduledJobService.getPollIntervalMs("event-1"));
+        verify(outboxService, times(2)).saveMessageAndSendToKafka("event-1", "1:0", EventPriority.PREMIUM);
+    }
+
+    @Test
+    void shouldSkipPollWhilePreviousPollOfEventIsStillRunning() throws InterruptedException {
+        // Given
+        scheduledJobService.startJob("event-1");
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(scoreClient.fetchScore("event-1")).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            releaseFetch.await(2, TimeUnit.SECONDS);
+            return new SoccerScoreDto("event-1", "0:0");
+        });
+        Thread slowPoll = Thread.startVirtualThread(() -> scheduledJobService.pollScore("event-1"));
+        assertTrue(fetchStarted.await(2, TimeUnit.SECONDS));
+
+        // When
+        scheduledJobService.pollScore("event-1");
+        releaseFetch.countDown();
+        slowPoll.join();
+
+        // Then
+        verify(scoreClient, times(1)).fetchScore("event-1");
+        assertEquals(1.0, meterRegistry.get("score.fetch.ticks.skipped").counter().count());
+    }
+
+    @Test
+    void shouldShedPollsOverTheConcurrentFetchBudget() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(scheduledJobService, "maxConcurrentFetches", 1);
+        scheduledJobService.initFetchBudget();
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(scoreClient.fetchScore("event-1")).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            releaseFetch.await(2, TimeUnit.SECONDS);
+            return new SoccerScoreDto("event-1", "0:0");
+        });
+        Thread slowPoll = Thread.startVirtualThread(() -> scheduledJobService.pollScore("event-1"));
+        assertTrue(fetchStarted.await(2, TimeUnit.SECONDS));
+
+        // When
+        scheduledJobService.pollScore("event-2");
+        releaseFetch.countDown();
+        slowPoll.join();
+
+        // Then
+        verify(scoreClient, never()).fetchScore("event-2");
+        assertEquals(1.0, meterRegistry.get("score.fetch.ticks.shed").counter().count());
+        assertEquals(0.0, meterRegistry.get("score.fetch.in-flight").gauge().value());
+    }
+
+    @Test
+    void shouldShedLowerTiersFirstAndKeepBudgetForPremiumPolls() throws InterruptedException {
+        // Given: a budget of two fetches, of which STANDARD may only use one
+        ReflectionTestUtils.setField(scheduledJobService, "maxConcurrentFetches", 2);
+        ReflectionTestUtils.setField(scheduledJobService, "tierReservePercent", 50);
+        scheduledJobService.initFetchBudget();
+        scheduledJobService.startJob("event-2", EventPriority.STANDARD);
+        scheduledJobService.startJob("event-3", EventPriority.PREMIUM);
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(scoreClient.fetchScore("event-1")).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            releaseFetch.await(2, TimeUnit.SECONDS);
+            return new SoccerScoreDto("event-1", "0:0");
+        });
+        when(scoreClient.fetchScore("event-3")).thenReturn(new SoccerScoreDto("event-3", "0:0"));
+        Thread slowPoll = Thread.startVirtualThread(() -> scheduledJobService.pollScore("event-1"));
+        assertTrue(fetchStarted.await(2, TimeUnit.SECONDS));
+
+        // When
+        scheduledJobService.pollScore("event-2");
+        scheduledJobService.pollScore("event-3");
+        releaseFetch.countDown();
+        slowPoll.join();
+
+        // Then
+        verify(scoreClient, never()).fetchScore("event-2");
+        verify(scoreClient).fetchScore("event-3");
+        assertEquals(1.0, meterRegistry.get("score.fetch.ticks.shed").counter().count());
+    }
+
+    @Test
+    void shouldPublishPushedScoreOfLiveEventWithoutShorteningPollInterval() {
+        // Given
+        scheduledJobService.startJob("event-1");
+        when(scoreCache.shouldPublish("event-1", "1:0")).thenReturn(true, false);
+        when(outboxService.saveMessageAndSendToKafka("event-1", "1:0", EventPriority.STANDARD)).thenReturn(true);
+        when(scoreClient.fetchScore("event-1")).thenReturn(new SoccerScoreDto("event-1", "1:0"));
+
+        // When
+        scheduledJobService.onScorePushed(new SoccerScoreDto("event-1", "1:0"));
+        scheduledJobService.pollScore("event-1");
+
+        // Then
+        verify(outboxService).saveMessageAndSendToKafka("event-1", "1:0", EventPriority.STANDARD);
+        verify(scoreCache).recordPublished("event-1", "1:0");
+        // The poll after the push sees an unchanged score and backs off
+        assertEquals(15000L, scheduledJobService.getPollIntervalMs("event-1"));
+    }
+
+    @Test
+    void shouldDropPolledScoreFetchedBeforeANewerPush() {
+        // Given: the score changes to 2:0 and is pushed while a poll still returns the older 1:0
+        scheduledJobService.startJob("event-1");
+        when(scoreCache.shouldPublish("event-1", "2:0")).thenReturn(true);
+        when(outboxService.saveMessageAndSendToKafka("event-1", "2:0", EventPriority.STANDARD)).thenReturn(true);
+        when(scoreClient.fetchScore("event-1")).thenAnswer(invocation -> {
+            scheduledJobService.onScorePushed(new SoccerScoreDto("event-1", "2:0"));
+            return new SoccerScoreDto("event-1", "1:0");
+        });
+
+        // When
+        scheduledJobService.pollScore("event-1");
+
+        // Then
+        verify(outboxService).saveMessageAndSendToKafka("event-1", "2:0", EventPriority.STANDARD);
+        verify(outboxService, never()).saveMessageAndSendToKafka(eq("event-1"), eq("1:0"), any());
+        assertEquals(1.0, meterRegistry.get("score.fetch.polls.stale").counter().count());
+    }
+
+    @Test
+    void shouldIgnorePushedScoresOfEventsWithoutJob() {
+        // When
+        scheduledJobService.onScorePushed(new SoccerScoreDto("event-2", "1:0"));
+        scheduledJobService.onScorePushed(new SoccerScoreDto(null, "1:0"));
+
+        // Then
+        verifyNoInteractions(outboxService, scoreCache);
+    }
+
+    @Test
+    void shouldStartJobsOfManyEventsInOneCall() {
+        // When
+        scheduledJobService.startJobs(Map.of("event-1", EventPriority.STANDARD, "event-2", EventPriority.PREMIUM));
+
+        // Then
+        assertEquals(Set.of("event-1", "event-2"), scheduledJobService.getScheduledEventIds());
+        assertTrue(scheduledJobService.isJobRunning("event-1"));
+        assertEquals(10000L, scheduledJobService.getPollIntervalMs("event-2"));
+    }
+
+    @Test
+    void shouldHandScoresToThePipelineWhenEnabled() {
+        // Given
+        ScorePipeline scorePipeline = mock(ScorePipeline.class);
+        scheduledJobService = new ScheduledJobService(outboxService, scoreCache, timingWheel, scoreClient,
+                new AdaptivePollIntervalPolicy(10000, 2000, 30000, 1.5, 10000, 30000, 10000, 30000),
+                new PhaseAllocator(100, meterRegistry), Optional.of(scorePipeline), meterRegistry);
+        scheduledJobService.startJob("event-1", EventPriority.PREMIUM);
+        when(scoreClient.fetchScore("event-1")).thenReturn(new SoccerScoreDto("event-1", "1:0"));
+
+        // When
+        scheduledJobService.pollScore("event-1");
+
+        // Then
+        verify(scorePipeline).submit("event-1", "1:0", EventPriority.PREMIUM);
+        verifyNoInteractions(outboxService, scoreCache);
+    }
+}
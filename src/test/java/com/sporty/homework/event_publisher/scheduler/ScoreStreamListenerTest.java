@@ -0,0 +1,113 @@
+package com.sporty.homework.event_publisher.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ScoreStreamListenerTest {
+
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ScoreStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new ScoreStreamListener(scheduledJobService, new ObjectMapper(), 2000, meterRegistry);
+    }
+
+    @Test
+    void shouldDispatchScoreWhenEventIsComplete() {
+        // When
+        listener.handleLine("event: score");
+        listener.handleLine("data: {\"eventId\":\"event-1\",\"currentScore\":\"1:0\"}");
+        listener.handleLine("");
+
+        // Then
+        verify(scheduledJobService).onScorePushed(new SoccerScoreDto("event-1", "1:0"));
+        assertEquals(1.0, meterRegistry.get("score.stream.received").counter().count());
+    }
+
+    @Test
+    void shouldIgnoreKeepAliveComments() {
+        // When
+        listener.handleLine(": ping");
+        listener.handleLine("");
+
+        // Then
+        verifyNoInteractions(scheduledJobService);
+    }
+
+    @Test
+    void shouldCountMalformedEventsWithoutDispatching() {
+        // When
+        listener.handleLine("data: not-json");
+        listener.handleLine("");
+
+        // Then
+        verifyNoInteractions(scheduledJobService);
+        assertEquals(1.0, meterRegistry.get("score.stream.malformed").counter().count());
+    }
+
+    @Test
+    void shouldReconnectWhenStreamGoesSilent() throws Exception {
+        // Given: a server that sends one score and then neither pings nor closes the connection
+        CountDownLatch connections = new CountDownLatch(2);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/scores/stream", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            body.write("data: {\"eventId\":\"event-1\",\"currentScore\":\"1:0\"}\n\n".getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            connections.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+        ReflectionTestUtils.setField(listener, "baseUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(listener, "idleTimeoutMs", 300L);
+        ReflectionTestUtils.setField(listener, "reconnectDelayMs", 50L);
+
+        try {
+            // When
+            listener.start();
+
+            // Then
+            assertTrue(connections.await(5, TimeUnit.SECONDS), "Listener did not reconnect after the stream went silent");
+            verify(scheduledJobService, atLeast(1)).onScorePushed(new SoccerScoreDto("event-1", "1:0"));
+        } finally {
+            listener.shutdown();
+            server.stop(0);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.sporty.homework.event_publisher.service;
 
+import com.sporty.homework.event_publisher.cluster.EventOwnershipService;
 import com.sporty.homework.event_publisher.dao.EventDao;
 import com.sporty.homework.event_publisher.dto.CreateEventDto;
 import com.sporty.homework.event_publisher.dto.EventDto;
+import com.sporty.homework.event_publisher.enums.EventPriority;
 import com.sporty.homework.event_publisher.enums.EventStatus;
 import com.sporty.homework.event_publisher.model.Event;
 import com.sporty.homework.event_publisher.scheduler.ScheduledJobService;
@@ -15,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -27,11 +30,15 @@ class EventServiceTest {
     @Mock
     private ScheduledJobService scheduledJobService;
 
+    @Mock
+    private EventOwnershipService eventOwnershipService;
+
     private EventService eventService;
 
     @BeforeEach
     void setUp() {
-        eventService = new EventService(eventDao, scheduledJobService);
+        eventService = new EventService(eventDao, scheduledJobService, eventOwnershipService);
+        lenient().when(eventOwnershipService.isOwnedLocally(anyString())).thenReturn(true);
     }
 
     @Test
@@ -43,7 +50,7 @@ class EventServiceTest {
         eventService.addEvent(createEventDto);
 
         // Then
-        verify(eventDao).insertEvent(eq("event-123"), eq(EventStatus.LIVE));
+        verify(eventDao).insertEvent(eq("event-123"), eq(EventStatus.LIVE), eq(EventPriority.STANDARD));
     }
 
     @Test
@@ -55,7 +62,20 @@ class EventServiceTest {
         eventService.addEvent(createEventDto);
 
         // Then
-        verify(scheduledJobService).startJob("event-123");
+        verify(scheduledJobService).startJob("event-123", EventPriority.STANDARD);
+    }
+
+    @Test
+    void shouldStartJobWithRequestedPriorityOnCreation() {
+        // Given
+        CreateEventDto createEventDto = new CreateEventDto("event-123", EventStatus.LIVE, EventPriority.PREMIUM);
+
+        // When
+        eventService.addEvent(createEventDto);
+
+        // Then
+        verify(eventDao).insertEvent("event-123", EventStatus.LIVE, EventPriority.PREMIUM);
+        verify(scheduledJobService).startJob("event-123", EventPriority.PREMIUM);
     }
 
     @Test
@@ -67,7 +87,7 @@ class EventServiceTest {
         eventService.addEvent(createEventDto);
 
         // Then
-        verify(scheduledJobService, never()).startJob(any());
+        verify(scheduledJobService, never()).startJob(any(), any());
     }
 
     @Test
@@ -93,7 +113,33 @@ class EventServiceTest {
         eventService.updateEventStatus(eventId, newStatus);
 
         // Then
-        verify(scheduledJobService).startJob("event-123");
+        verify(scheduledJobService).startJob("event-123", EventPriority.STANDARD);
+    }
+
+    @Test
+    void shouldRestartJobWithStoredPriorityWhenUpdatingEventStatusToLive() {
+        // Given
+        Event storedEvent = new Event();
+        storedEvent.setEventId("event-123");
+        storedEvent.setPriority(EventPriority.LOW);
+        when(eventDao.findByEventId("event-123")).thenReturn(storedEvent);
+
+        // When
+        eventService.updateEventStatus("event-123", EventStatus.LIVE);
+
+        // Then
+        verify(scheduledJobService).startJob("event-123", EventPriority.LOW);
+        verify(eventDao, never()).updateEventPriority(any(), any());
+    }
+
+    @Test
+    void shouldUpdatePriorityWhenGivenWithStatus() {
+        // When
+        eventService.updateEventStatus("event-123", EventStatus.LIVE, EventPriority.PREMIUM);
+
+        // Then
+        verify(eventDao).updateEventPriority("event-123", EventPriority.PREMIUM);
+        verify(scheduledJobService).startJob("event-123", EventPriority.PREMIUM);
     }
 
     @Test
@@ -139,4 +185,18 @@ class EventServiceTest {
         // Then
         assertNull(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotStartJobOfLiveEventOwnedByAnotherNode() {
+        // Given
+        when(eventOwnershipService.isOwnedLocally("event-123")).thenReturn(false);
+
+        // When
+        eventService.addEvent(new CreateEventDto("event-123", EventStatus.LIVE));
+        eventService.updateEventStatus("event-123", EventStatus.LIVE, EventPriority.PREMIUM);
+
+        // Then
+        verify(eventDao).insertEvent("event-123", EventStatus.LIVE, EventPriority.STANDARD);
+        verify(scheduledJobService, never()).startJob(anyString(), any(EventPriority.class));
+    }
+}
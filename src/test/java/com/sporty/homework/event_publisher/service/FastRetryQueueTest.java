@@ -0,0 +1,97 @@
+package com.sporty.homework.event_publisher.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastRetryQueueTest {
+
+    private FastRetryQueue fastRetryQueue;
+
+    @AfterEach
+    void tearDown() {
+        if (fastRetryQueue != null) {
+            fastRetryQueue.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRunRetryOnceItsDelayHasPassed() throws InterruptedException {
+        // Given
+        fastRetryQueue = new FastRetryQueue(new SimpleMeterRegistry(), true, 3, 50, 2.0, 10);
+        CountDownLatch retried = new CountDownLatch(1);
+        long scheduledAt = System.nanoTime();
+
+        // When
+        boolean scheduled = fastRetryQueue.schedule(1, retried::countDown);
+
+        // Then
+        assertTrue(scheduled);
+        assertTrue(retried.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - scheduledAt >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void shouldRejectRetryWhenAttemptsAreUsedUp() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        fastRetryQueue = new FastRetryQueue(meterRegistry, true, 2, 50, 2.0, 10);
+
+        // When
+        boolean scheduled = fastRetryQueue.schedule(3, () -> { });
+
+        // Then
+        assertFalse(scheduled);
+        assertEquals(1.0, meterRegistry.get("outbox.fast-retry.exhausted").counter().count());
+    }
+
+    @Test
+    void shouldRejectRetryWhenQueueIsFull() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        fastRetryQueue = new FastRetryQueue(meterRegistry, true, 3, 60000, 2.0, 2);
+
+        // When
+        boolean first = fastRetryQueue.schedule(1, () -> { });
+        boolean second = fastRetryQueue.schedule(1, () -> { });
+        boolean third = fastRetryQueue.schedule(1, () -> { });
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(1.0, meterRegistry.get("outbox.fast-retry.overflow").counter().count());
+        assertEquals(2.0, meterRegistry.get("outbox.fast-retry.queue.depth").gauge().value());
+    }
+
+    @Test
+    void shouldNeverScheduleWhenDisabled() {
+        // Given
+        fastRetryQueue = new FastRetryQueue(new SimpleMeterRegistry());
+
+        // When
+        boolean scheduled = fastRetryQueue.schedule(1, () -> { });
+
+        // Then
+        assertFalse(scheduled);
+    }
+
+    @Test
+    void shouldNameTheInvalidSetting() {
+        // When & Then
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        assertEquals("Fast retry max attempts must not be negative", assertThrows(IllegalArgumentException.class,
+                () -> new FastRetryQueue(meterRegistry, false, -1, 100, 2.0, 10)).getMessage());
+        assertEquals("Fast retry initial delay must not be negative", assertThrows(IllegalArgumentException.class,
+                () -> new FastRetryQueue(meterRegistry, false, 3, -1, 2.0, 10)).getMessage());
+        assertEquals("Fast retry multiplier must be positive", assertThrows(IllegalArgumentException.class,
+                () -> new FastRetryQueue(meterRegistry, false, 3, 100, 0.0, 10)).getMessage());
+        assertEquals("Fast retry capacity must be positive", assertThrows(IllegalArgumentException.class,
+                () -> new FastRetryQueue(meterRegistry, false, 3, 100, 2.0, 0)).getMessage());
+    }
+}
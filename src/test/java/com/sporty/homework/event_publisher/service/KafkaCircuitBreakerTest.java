@@ -0,0 +1,86 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.enums.CircuitBreakerState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaCircuitBreakerTest {
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        // Given
+        KafkaCircuitBreaker breaker = new KafkaCircuitBreaker(new SimpleMeterRegistry(), true, 3, 60000);
+
+        // When
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        boolean permittedBeforeThreshold = breaker.tryAcquirePermission();
+        breaker.onFailure();
+
+        // Then
+        assertTrue(permittedBeforeThreshold);
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldLetSingleTrialThroughOnceOpenDurationHasPassed() {
+        // Given
+        KafkaCircuitBreaker breaker = new KafkaCircuitBreaker(new SimpleMeterRegistry(), true, 1, 0);
+        breaker.onFailure();
+
+        // When
+        boolean trial = breaker.tryAcquirePermission();
+        boolean second = breaker.tryAcquirePermission();
+
+        // Then
+        assertTrue(trial);
+        assertFalse(second);
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void shouldCloseWhenTrialSucceedsAndReopenWhenItFails() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KafkaCircuitBreaker breaker = new KafkaCircuitBreaker(meterRegistry, true, 1, 0);
+        breaker.onFailure();
+
+        // When
+        breaker.tryAcquirePermission();
+        breaker.onSuccess();
+        CircuitBreakerState afterSuccess = breaker.getState();
+        breaker.onFailure();
+        breaker.tryAcquirePermission();
+        breaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreakerState.CLOSED, afterSuccess);
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertEquals(2.0, meterRegistry.get("kafka.circuit-breaker.transitions")
+                .tags("from", "CLOSED", "to", "OPEN").counter().count());
+        assertEquals(1.0, meterRegistry.get("kafka.circuit-breaker.transitions")
+                .tags("from", "HALF_OPEN", "to", "OPEN").counter().count());
+        assertEquals(1.0, meterRegistry.get("kafka.circuit-breaker.state").tag("state", "OPEN").gauge().value());
+    }
+
+    @Test
+    void shouldNeverOpenWhenDisabled() {
+        // Given
+        KafkaCircuitBreaker breaker = new KafkaCircuitBreaker(new SimpleMeterRegistry());
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure();
+        }
+
+        // Then
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+}
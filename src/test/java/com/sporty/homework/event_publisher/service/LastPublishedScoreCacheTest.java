@@ -0,0 +1,72 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.dto.SoccerScoreDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastPublishedScoreCacheTest {
+
+    @Mock
+    private MessageDao messageDao;
+
+    @Test
+    void shouldSkipUnchangedScoreUntilHeartbeatIsDue() {
+        // Given
+        LastPublishedScoreCache cache = new LastPublishedScoreCache(messageDao, 100, 60000);
+        cache.recordPublished("event-123", "1:0");
+
+        // When & Then
+        assertFalse(cache.shouldPublish("event-123", "1:0"));
+        assertTrue(cache.shouldPublish("event-123", "2:0"));
+        assertTrue(cache.shouldPublish("event-456", "0:0"));
+    }
+
+    @Test
+    void shouldRepublishUnchangedScoreOnceHeartbeatElapsed() throws InterruptedException {
+        // Given
+        LastPublishedScoreCache cache = new LastPublishedScoreCache(messageDao, 100, 1);
+        cache.recordPublished("event-123", "1:0");
+
+        // When
+        Thread.sleep(5);
+
+        // Then
+        assertTrue(cache.shouldPublish("event-123", "1:0"));
+    }
+
+    @Test
+    void shouldPublishAgainAfterEviction() {
+        // Given
+        LastPublishedScoreCache cache = new LastPublishedScoreCache(messageDao, 100, 0);
+        cache.recordPublished("event-123", "1:0");
+
+        // When
+        cache.evict("event-123");
+
+        // Then
+        assertTrue(cache.shouldPublish("event-123", "1:0"));
+    }
+
+    @Test
+    void shouldWarmUpFromLatestOutboxScores() {
+        // Given
+        LastPublishedScoreCache cache = new LastPublishedScoreCache(messageDao, 100, 0);
+        when(messageDao.findLatestScoresForLiveEvents()).thenReturn(List.of(new SoccerScoreDto("event-123", "3:2")));
+
+        // When
+        cache.run(null);
+
+        // Then
+        assertFalse(cache.shouldPublish("event-123", "3:2"));
+        assertTrue(cache.shouldPublish("event-123", "3:3"));
+    }
+}
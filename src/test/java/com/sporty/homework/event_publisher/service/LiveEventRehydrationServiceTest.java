@@ -0,0 +1,107 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.cluster.EventOwnershipService;
+import com.sporty.homework.event_publisher.dao.EventDao;
+import com.sporty.homework.event_publisher.enums.EventPriority;
+import com.sporty.homework.event_publisher.enums.EventStatus;
+import com.sporty.homework.event_publisher.model.Event;
+import com.sporty.homework.event_publisher.scheduler.ScheduledJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveEventRehydrationServiceTest {
+
+    @Mock
+    private EventDao eventDao;
+
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
+    @Mock
+    private EventOwnershipService eventOwnershipService;
+
+    private LiveEventRehydrationService rehydrationService;
+
+    @BeforeEach
+    void setUp() {
+        rehydrationService = new LiveEventRehydrationService(eventDao, scheduledJobService, eventOwnershipService);
+        ReflectionTestUtils.setField(rehydrationService, "enabled", true);
+        ReflectionTestUtils.setField(rehydrationService, "batchSize", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStartJobsOfLiveEventsBatchByBatch() {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<List<Event>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(liveEvent("event-1", EventPriority.PREMIUM), liveEvent("event-2", null)));
+            consumer.accept(List.of(liveEvent("event-3", EventPriority.LOW)));
+            return 3;
+        }).when(eventDao).forEachLiveEventBatch(eq(2), any());
+
+        // When
+        rehydrationService.run(null);
+
+        // Then
+        verify(scheduledJobService).startJobs(Map.of("event-1", EventPriority.PREMIUM, "event-2", EventPriority.STANDARD));
+        verify(scheduledJobService).startJobs(Map.of("event-3", EventPriority.LOW));
+        verify(scheduledJobService, never()).startJob(any(), any());
+    }
+
+    @Test
+    void shouldLetTheFirstHeartbeatRehydrateWhenOwnershipIsEnabled() {
+        // Given
+        when(eventOwnershipService.isEnabled()).thenReturn(true);
+
+        // When
+        rehydrationService.run(null);
+
+        // Then
+        verify(eventOwnershipService).join();
+        verifyNoInteractions(eventDao, scheduledJobService);
+    }
+
+    @Test
+    void shouldFailStartupWhenLiveEventsCannotBeRead() {
+        // Given
+        when(eventDao.forEachLiveEventBatch(eq(2), any())).thenThrow(new IllegalStateException("database down"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> rehydrationService.run(null));
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(rehydrationService, "enabled", false);
+
+        // When
+        rehydrationService.run(null);
+
+        // Then
+        verifyNoInteractions(eventDao, scheduledJobService, eventOwnershipService);
+    }
+
+    private static Event liveEvent(String eventId, EventPriority priority) {
+        Event event = new Event();
+        event.setEventId(eventId);
+        event.setStatus(EventStatus.LIVE);
+        event.setPriority(priority);
+        return event;
+    }
+}
@@ -0,0 +1,153 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.EventDao;
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.enums.EventStatus;
+import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Testcontainers
+class OutboxDeadLetterFunctionalTest {
+
+    private static final String DEAD_LETTER_TOPIC = "event-scores.DLT";
+
+    @Container
+    @SuppressWarnings("resource")
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        // The test drives the relay itself
+        registry.add("outbox.listener.enabled", () -> "false");
+        registry.add("outbox.processor.interval", () -> "3600000");
+    }
+
+    @Autowired
+    private MessageDao messageDao;
+
+    @Autowired
+    private EventDao eventDao;
+
+    @Autowired
+    private Jdbi jdbi;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDeadLetterRowAfterItsLastFailedRelayAttempt() {
+        // Given: a broker that rejects every score and accepts the dead-letter topic
+        List<ProducerRecord<String, String>> scoreSends = new ArrayList<>();
+        List<ProducerRecord<String, String>> deadLetterSends = new ArrayList<>();
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, String> record = invocation.getArgument(0);
+            if (!DEAD_LETTER_TOPIC.equals(record.topic())) {
+                scoreSends.add(record);
+                return CompletableFuture.failedFuture(new RuntimeException("Kafka connection failed"));
+            }
+            deadLetterSends.add(record);
+            RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition(DEAD_LETTER_TOPIC, 0), 0, 0, 0L, null, 0, 0);
+            return CompletableFuture.completedFuture(new SendResult<>(record, recordMetadata));
+        });
+        OutboxService outboxService = outboxService(kafkaTemplate);
+
+        eventDao.insertEvent("event-dead-letter", EventStatus.LIVE);
+        Long messageId = messageDao.insertMessage(pendingMessage("event-dead-letter"));
+
+        // When: the relay runs once per attempt, each time after the row's backoff has passed
+        for (int run = 0; run < OutboxService.MAX_SEND_ATTEMPTS; run++) {
+            outboxService.processPendingMessages();
+            makeDue(messageId);
+        }
+
+        // Then: every attempt reached the broker, and the last failure sent the row to the dead-letter topic
+        assertEquals(OutboxService.MAX_SEND_ATTEMPTS, scoreSends.size());
+        assertEquals(1, deadLetterSends.size());
+        ProducerRecord<String, String> deadLetter = deadLetterSends.get(0);
+        assertEquals(String.valueOf(OutboxService.MAX_SEND_ATTEMPTS), header(deadLetter, OutboxService.DLT_RETRY_COUNT_HEADER));
+        assertEquals(String.valueOf(messageId), header(deadLetter, OutboxService.OUTBOX_ID_HEADER));
+
+        Message row = messageDao.findMessagesByStatus(MessageStatus.PERMANENTLY_FAILED).stream()
+                .filter(message -> message.getId().equals(messageId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(OutboxService.MAX_SEND_ATTEMPTS, row.getRetryCount());
+        assertNotNull(row.getDeadLetteredAt());
+
+        // And a further run leaves it alone
+        outboxService.processPendingMessages();
+        assertEquals(OutboxService.MAX_SEND_ATTEMPTS, scoreSends.size());
+        assertEquals(1, deadLetterSends.size());
+    }
+
+    private OutboxService outboxService(KafkaTemplate<String, String> kafkaTemplate) {
+        OutboxService outboxService = new OutboxService(messageDao, kafkaTemplate, new RetryBackoffPolicy(60000, 2.0, 60000, 0.0),
+                new SimpleMeterRegistry(), new OutboxWriter(messageDao, new SimpleMeterRegistry()), TransactionOperations.withoutTransaction(),
+                new KafkaCircuitBreaker(new SimpleMeterRegistry()), new FastRetryQueue(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "event-scores");
+        ReflectionTestUtils.setField(outboxService, "deadLetterTopic", DEAD_LETTER_TOPIC);
+        ReflectionTestUtils.setField(outboxService, "deadLetterEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "batchRelayEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "relayBatchSize", 100);
+        return outboxService;
+    }
+
+    private Message pendingMessage(String eventId) {
+        Message message = new Message();
+        message.setEventId(eventId);
+        message.setEventType("EVENT_SCORE_UPDATE");
+        message.setPayload("{\"eventId\":\"" + eventId + "\",\"currentScore\":\"1:0\"}");
+        message.setStatus(MessageStatus.PENDING);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setRetryCount(0);
+        return message;
+    }
+
+    private void makeDue(Long messageId) {
+        jdbi.useHandle(handle -> handle.createUpdate(
+                        "UPDATE message_outbox SET next_attempt_at = LOCALTIMESTAMP - INTERVAL '1 second' " +
+                        "WHERE id = :id AND next_attempt_at IS NOT NULL")
+                .bind("id", messageId)
+                .execute());
+    }
+
+    private static String header(ProducerRecord<String, String> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
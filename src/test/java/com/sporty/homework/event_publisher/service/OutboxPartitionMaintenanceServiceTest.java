@@ -0,0 +1,81 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.OutboxPartitionDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPartitionMaintenanceServiceTest {
+
+    @Mock
+    private OutboxPartitionDao outboxPartitionDao;
+
+    private OutboxPartitionMaintenanceService maintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        maintenanceService = new OutboxPartitionMaintenanceService(outboxPartitionDao);
+        ReflectionTestUtils.setField(maintenanceService, "precreateDays", 2);
+        ReflectionTestUtils.setField(maintenanceService, "retentionDays", 7);
+    }
+
+    @Test
+    void shouldCreatePartitionsForTodayAndUpcomingDays() {
+        // When
+        maintenanceService.createUpcomingPartitions(LocalDate.of(2026, 10, 17));
+
+        // Then
+        verify(outboxPartitionDao).createPartition(LocalDate.of(2026, 10, 17));
+        verify(outboxPartitionDao).createPartition(LocalDate.of(2026, 10, 18));
+        verify(outboxPartitionDao).createPartition(LocalDate.of(2026, 10, 19));
+        verifyNoMoreInteractions(outboxPartitionDao);
+    }
+
+    @Test
+    void shouldDropOnlyExpiredPartitionsWithoutUnsentMessages() {
+        // Given
+        when(outboxPartitionDao.findPartitionNames()).thenReturn(List.of(
+                "message_outbox_p20261001", // expired and fully sent
+                "message_outbox_p20261002", // expired but still holds unsent messages
+                "message_outbox_p20261016"  // within retention
+        ));
+        when(outboxPartitionDao.hasUnsentMessages("message_outbox_p20261001")).thenReturn(false);
+        when(outboxPartitionDao.hasUnsentMessages("message_outbox_p20261002")).thenReturn(true);
+        when(outboxPartitionDao.retirePartition("message_outbox_p20261001", false)).thenReturn(true);
+
+        // When
+        maintenanceService.retireExpiredPartitions(LocalDate.of(2026, 10, 17));
+
+        // Then
+        verify(outboxPartitionDao).retirePartition("message_outbox_p20261001", false);
+        verify(outboxPartitionDao, never()).retirePartition(eq("message_outbox_p20261002"), anyBoolean());
+        verify(outboxPartitionDao, never()).hasUnsentMessages("message_outbox_p20261016");
+        verify(outboxPartitionDao, never()).retirePartition(eq("message_outbox_p20261016"), anyBoolean());
+    }
+
+    @Test
+    void shouldDetachInsteadOfDropWhenConfigured() {
+        // Given
+        ReflectionTestUtils.setField(maintenanceService, "detachOnly", true);
+        when(outboxPartitionDao.findPartitionNames()).thenReturn(List.of("message_outbox_p20261001"));
+        when(outboxPartitionDao.hasUnsentMessages("message_outbox_p20261001")).thenReturn(false);
+        when(outboxPartitionDao.retirePartition("message_outbox_p20261001", true)).thenReturn(true);
+
+        // When
+        maintenanceService.retireExpiredPartitions(LocalDate.of(2026, 10, 17));
+
+        // Then
+        verify(outboxPartitionDao).retirePartition("message_outbox_p20261001", true);
+    }
+}
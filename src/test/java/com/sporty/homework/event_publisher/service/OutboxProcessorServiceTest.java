@@ -0,0 +1,96 @@
+package com.sporty.homework.event_publisher.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxProcessorServiceTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    private OutboxProcessorService outboxProcessorService;
+
+    @BeforeEach
+    void setUp() {
+        outboxProcessorService = new OutboxProcessorService(outboxService);
+    }
+
+    @Test
+    void shouldRunRelayAgainWhenWokenUpDuringRun() {
+        // Given: a wakeup arrives while the relay is still running
+        AtomicInteger runs = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (runs.incrementAndGet() == 1) {
+                outboxProcessorService.processOutboxMessages();
+            }
+            return null;
+        }).when(outboxService).processPendingMessages();
+
+        // When
+        outboxProcessorService.processOutboxMessages();
+
+        // Then: the nested request did not run concurrently but caused exactly one more run
+        verify(outboxService, times(2)).processPendingMessages();
+    }
+
+    @Test
+    void shouldProcessOutboxWhenProcessingIsRequested() {
+        // When
+        outboxProcessorService.requestProcessing();
+
+        // Then
+        verify(outboxService, timeout(1000)).processPendingMessages();
+    }
+
+    @Test
+    void shouldNotLoseRequestArrivingWhileRunnerFinishes() throws InterruptedException {
+        // Given: every run records when it started on a shared logical clock
+        AtomicLong clock = new AtomicLong();
+        AtomicLong lastRunStartedAt = new AtomicLong();
+        doAnswer(invocation -> {
+            lastRunStartedAt.set(clock.incrementAndGet());
+            return null;
+        }).when(outboxService).processPendingMessages();
+
+        for (int i = 0; i < 2000; i++) {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicLong requestedAt = new AtomicLong();
+            Thread runner = Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                outboxProcessorService.processOutboxMessages();
+            });
+            Thread requester = Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                requestedAt.set(clock.incrementAndGet());
+                outboxProcessorService.processOutboxMessages();
+            });
+
+            // When
+            start.countDown();
+            runner.join();
+            requester.join();
+
+            // Then: some run started after the second request was made
+            assertTrue(lastRunStartedAt.get() > requestedAt.get(), "Request lost in iteration " + i);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
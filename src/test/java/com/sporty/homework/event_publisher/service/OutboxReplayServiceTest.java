@@ -0,0 +1,115 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.dto.ReplayRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxReplayServiceTest {
+
+    private static final ReplayRequestDto FILTER = new ReplayRequestDto("event-123", null, null, null, null);
+
+    @Mock
+    private MessageDao messageDao;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        replayService = new OutboxReplayService(messageDao, meterRegistry);
+        ReflectionTestUtils.setField(replayService, "batchSize", 2);
+        ReflectionTestUtils.setField(replayService, "maxMessagesPerSecond", 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayService.shutdown();
+    }
+
+    @Test
+    void shouldResetMatchingMessagesInKeysetBatches() throws InterruptedException {
+        // Given
+        when(messageDao.resetForReplay(FILTER, 0L, 2)).thenReturn(List.of(12L, 10L));
+        when(messageDao.resetForReplay(FILTER, 12L, 2)).thenReturn(List.of(15L));
+
+        // When
+        int replayed = replayService.replay(FILTER);
+
+        // Then
+        assertEquals(3, replayed);
+        InOrder inOrder = inOrder(messageDao);
+        inOrder.verify(messageDao).resetForReplay(FILTER, 0L, 2);
+        inOrder.verify(messageDao).resetForReplay(FILTER, 12L, 2);
+        inOrder.verifyNoMoreInteractions();
+        assertEquals(3.0, meterRegistry.get("outbox.replay.messages").counter().count());
+    }
+
+    @Test
+    void shouldStopWhenNoMoreMessagesMatch() throws InterruptedException {
+        // Given
+        when(messageDao.resetForReplay(FILTER, 0L, 2)).thenReturn(List.of(1L, 2L));
+        when(messageDao.resetForReplay(FILTER, 2L, 2)).thenReturn(List.of());
+
+        // When
+        int replayed = replayService.replay(FILTER);
+
+        // Then
+        assertEquals(2, replayed);
+        verify(messageDao, times(2)).resetForReplay(eq(FILTER), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldPaceBatchesToConfiguredRate() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(replayService, "maxMessagesPerSecond", 20);
+        when(messageDao.resetForReplay(FILTER, 0L, 2)).thenReturn(List.of(1L, 2L));
+        when(messageDao.resetForReplay(FILTER, 2L, 2)).thenReturn(List.of());
+        long startedAt = System.nanoTime();
+
+        // When
+        replayService.replay(FILTER);
+
+        // Then: two messages at 20 per second take at least 100 ms
+        assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void shouldRejectSecondReplayWhileOneIsRunning() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(messageDao.resetForReplay(FILTER, 0L, 2)).thenAnswer(invocation -> {
+            release.await(1, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        // When
+        boolean first = replayService.startReplay(FILTER);
+        boolean second = replayService.startReplay(FILTER);
+        release.countDown();
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        verify(messageDao, timeout(1000)).resetForReplay(FILTER, 0L, 2);
+    }
+}
@@ -5,6 +5,8 @@ import com.sporty.homework.event_publisher.dao.MessageDao;
 import com.sporty.homework.event_publisher.dto.EventScoreMessageDto;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
 import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -39,9 +42,13 @@ class OutboxServiceEdgeCaseTest {
 
     @BeforeEach
     void setUp() {
-        outboxService = new OutboxService(messageDao, kafkaTemplate);
+        outboxService = new OutboxService(messageDao, kafkaTemplate, new RetryBackoffPolicy(1000, 2.0, 60000, 0.2), new SimpleMeterRegistry(),
+                new OutboxWriter(messageDao, new SimpleMeterRegistry()), TransactionOperations.withoutTransaction(),
+                new KafkaCircuitBreaker(new SimpleMeterRegistry()), new FastRetryQueue(new SimpleMeterRegistry()));
         // Set the topic name for testing
         ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "event-scores");
+        // The relay never holds the row first unless a test says so
+        lenient().when(messageDao.claimForSend(any())).thenReturn(true);
     }
 
     @Test
@@ -55,7 +62,7 @@ class OutboxServiceEdgeCaseTest {
 
         // Then
         verify(messageDao, never()).insertMessage(any(Message.class));
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -69,7 +76,7 @@ class OutboxServiceEdgeCaseTest {
 
         // Then
         verify(messageDao, never()).insertMessage(any(Message.class));
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -83,7 +90,7 @@ class OutboxServiceEdgeCaseTest {
 
         // Then
         verify(messageDao, never()).insertMessage(any(Message.class));
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -97,7 +104,7 @@ class OutboxServiceEdgeCaseTest {
 
         // Then
         verify(messageDao, never()).insertMessage(any(Message.class));
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -111,7 +118,7 @@ class OutboxServiceEdgeCaseTest {
 
         // Then
         verify(messageDao, never()).insertMessage(any(Message.class));
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -128,14 +135,36 @@ class OutboxServiceEdgeCaseTest {
         CompletableFuture<org.springframework.kafka.support.SendResult<String, String>> failedFuture = new CompletableFuture<>();
         RuntimeException exception = new RuntimeException("Kafka connection failed");
         failedFuture.completeExceptionally(exception);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(failedFuture);
 
         // When
         outboxService.processPendingMessages();
 
         // Then
-        verify(messageDao).updateMessageStatus(eq(1L), eq(MessageStatus.PERMANENTLY_FAILED), any(LocalDateTime.class));
+        verify(messageDao).markMessageAsFailed(eq(1L), eq(MessageStatus.PERMANENTLY_FAILED), any(LocalDateTime.class), isNull());
+    }
+
+    @Test
+    void shouldMarkMessageAsPermanentlyFailedWhenItsLastAttemptFails() {
+        // Given: four failed attempts so far, the next one is the last
+        Message failedMessage = new Message();
+        failedMessage.setId(3L);
+        failedMessage.setPayload("{\"eventId\":\"event-789\",\"currentScore\":\"1:1\"}");
+        failedMessage.setEventType("EVENT_SCORE_UPDATE");
+        failedMessage.setStatus(MessageStatus.FAILED);
+        failedMessage.setRetryCount(4);
+
+        when(messageDao.findFailedMessages()).thenReturn(Arrays.asList(failedMessage));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka connection failed")));
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then: it is not left FAILED, where the relay would never select it again
+        verify(messageDao).markMessageAsFailed(eq(3L), eq(MessageStatus.PERMANENTLY_FAILED), any(LocalDateTime.class), isNull());
+        verify(messageDao, never()).markMessageAsFailed(eq(3L), eq(MessageStatus.FAILED), any(), any());
     }
 
     @Test
@@ -152,13 +181,13 @@ class OutboxServiceEdgeCaseTest {
         CompletableFuture<org.springframework.kafka.support.SendResult<String, String>> failedFuture = new CompletableFuture<>();
         RuntimeException exception = new RuntimeException("Kafka connection failed");
         failedFuture.completeExceptionally(exception);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(failedFuture);
 
         // When
         outboxService.processPendingMessages();
 
         // Then
-        verify(messageDao).updateMessageStatus(eq(2L), eq(MessageStatus.PERMANENTLY_FAILED), any(LocalDateTime.class));
+        verify(messageDao).markMessageAsFailed(eq(2L), eq(MessageStatus.PERMANENTLY_FAILED), any(LocalDateTime.class), isNull());
     }
 }
\ No newline at end of file
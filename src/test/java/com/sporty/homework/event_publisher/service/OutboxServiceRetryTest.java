@@ -3,6 +3,9 @@ package com.sporty.homework.event_publisher.service;
 import com.sporty.homework.event_publisher.dao.MessageDao;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
 import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -11,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,12 +24,30 @@ import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class OutboxServiceRetryTest {
 
+    @Mock
+    private MessageDao messageDao;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(messageDao, kafkaTemplate, new RetryBackoffPolicy(1000, 2.0, 60000, 0.2), new SimpleMeterRegistry(),
+                new OutboxWriter(messageDao, new SimpleMeterRegistry()), TransactionOperations.withoutTransaction(),
+                new KafkaCircuitBreaker(new SimpleMeterRegistry()), new FastRetryQueue(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "test-event-scores");
+        // The relay never holds the row first unless a test says so
+        lenient().when(messageDao.claimForSend(any())).thenReturn(true);
+    }
+
     @Test
     void shouldMarkMessageAsPermanentlyFailedAfterMaxRetries() {
         // Given: A message that fails to send to Kafka consistently
@@ -33,13 +55,6 @@ class OutboxServiceRetryTest {
         String currentScore = "1:0";
         Long messageId = 1L;
         
-        // Setup mocks
-        MessageDao messageDao = mock(MessageDao.class);
-        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
-        
-        OutboxService outboxService = new OutboxService(messageDao, kafkaTemplate);
-        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "test-event-scores");
-        
         // Setup the DAO mock to return a message marked as FAILED with max retry count
         Message failedMessage = new Message();
         failedMessage.setId(messageId);
@@ -51,7 +66,7 @@ class OutboxServiceRetryTest {
         // Configure the Kafka template to always fail
         CompletableFuture<SendResult<String, String>> failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new RuntimeException("Kafka unavailable"));
-        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(failedFuture);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failedFuture);
         
         // Configure DAO methods
         when(messageDao.findFailedMessages()).thenReturn(List.of(failedMessage));
@@ -65,7 +80,7 @@ class OutboxServiceRetryTest {
         ArgumentCaptor<MessageStatus> statusCaptor = ArgumentCaptor.forClass(MessageStatus.class);
         ArgumentCaptor<LocalDateTime> timeCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
         
-        verify(messageDao).updateMessageStatus(idCaptor.capture(), statusCaptor.capture(), timeCaptor.capture());
+        verify(messageDao).markMessageAsFailed(idCaptor.capture(), statusCaptor.capture(), timeCaptor.capture(), isNull());
         
         assertEquals(messageId, idCaptor.getValue());
         assertEquals(MessageStatus.PERMANENTLY_FAILED, statusCaptor.getValue());
@@ -78,13 +93,6 @@ class OutboxServiceRetryTest {
         String currentScore = "1:0";
         Long messageId = 2L;  // Use different ID to avoid conflicts
         
-        // Setup mocks
-        MessageDao messageDao = mock(MessageDao.class);
-        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
-        
-        OutboxService outboxService = new OutboxService(messageDao, kafkaTemplate);
-        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "test-event-scores");
-        
         // Setup message with retry count < max retries (5)
         Message failedMessage = new Message();
         failedMessage.setId(messageId);
@@ -96,7 +104,7 @@ class OutboxServiceRetryTest {
         // Configure the Kafka template to always fail
         CompletableFuture<SendResult<String, String>> failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new RuntimeException("Kafka unavailable"));
-        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(failedFuture);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failedFuture);
         
         // Configure DAO methods
         when(messageDao.findFailedMessages()).thenReturn(List.of(failedMessage));
@@ -110,7 +118,7 @@ class OutboxServiceRetryTest {
         ArgumentCaptor<MessageStatus> statusCaptor = ArgumentCaptor.forClass(MessageStatus.class);
         ArgumentCaptor<LocalDateTime> timeCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
         
-        verify(messageDao).markMessageAsFailed(idCaptor.capture(), statusCaptor.capture(), timeCaptor.capture());
+        verify(messageDao).markMessageAsFailed(idCaptor.capture(), statusCaptor.capture(), timeCaptor.capture(), any(LocalDateTime.class));
         
         assertEquals(messageId, idCaptor.getValue());
         assertEquals(MessageStatus.FAILED, statusCaptor.getValue());
@@ -123,13 +131,6 @@ class OutboxServiceRetryTest {
         String currentScore = "1:0";
         Long messageId = 3L; // Use different ID to avoid conflicts
         
-        // Setup mocks
-        MessageDao messageDao = mock(MessageDao.class);
-        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
-        
-        OutboxService outboxService = new OutboxService(messageDao, kafkaTemplate);
-        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "test-event-scores");
-        
         // Setup message with retry count < max retries (5)
         Message failedMessage = new Message();
         failedMessage.setId(messageId);
@@ -142,7 +143,7 @@ class OutboxServiceRetryTest {
         org.apache.kafka.clients.producer.RecordMetadata recordMetadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
         SendResult<String, String> sendResult = new SendResult<>(null, recordMetadata);
         CompletableFuture<SendResult<String, String>> successfulFuture = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(successfulFuture);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(successfulFuture);
         
         // Configure DAO methods
         when(messageDao.findFailedMessages()).thenReturn(List.of(failedMessage));
@@ -168,23 +169,16 @@ class OutboxServiceRetryTest {
         String eventId = "test-event";
         String currentScore = "1:0";
         
-        // Setup mocks
-        MessageDao messageDao = mock(MessageDao.class);
-        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
-        
-        OutboxService outboxService = new OutboxService(messageDao, kafkaTemplate);
-        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "test-event-scores");
-        
         // Configure the Kafka template to timeout
         CompletableFuture<SendResult<String, String>> timeoutFuture = new CompletableFuture<>();
         timeoutFuture.completeExceptionally(new TimeoutException("Kafka timeout"));
-        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(timeoutFuture);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(timeoutFuture);
         
         // When: saveMessageAndSendToKafka is called
         outboxService.saveMessageAndSendToKafka(eventId, currentScore);
         
         // Then: The message should be marked as failed
-        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class));
+        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
@@ -193,22 +187,15 @@ class OutboxServiceRetryTest {
         String eventId = "test-event";
         String currentScore = "1:0";
         
-        // Setup mocks
-        MessageDao messageDao = mock(MessageDao.class);
-        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
-        
-        OutboxService outboxService = new OutboxService(messageDao, kafkaTemplate);
-        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "test-event-scores");
-        
         // Configure the Kafka template to fail with ExecutionException
         CompletableFuture<SendResult<String, String>> failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new ExecutionException(new RuntimeException("Kafka error")));
-        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(failedFuture);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failedFuture);
         
         // When: saveMessageAndSendToKafka is called
         outboxService.saveMessageAndSendToKafka(eventId, currentScore);
         
         // Then: The message should be marked as failed
-        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class));
+        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 }
\ No newline at end of file
@@ -4,23 +4,30 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sporty.homework.event_publisher.dao.MessageDao;
 import com.sporty.homework.event_publisher.dto.EventScoreMessageDto;
 import com.sporty.homework.event_publisher.enums.MessageStatus;
+import com.sporty.homework.event_publisher.enums.OutboxPublishMode;
 import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,9 +46,9 @@ class OutboxServiceTest {
 
     @BeforeEach
     void setUp() {
-        outboxService = new OutboxService(messageDao, kafkaTemplate);
-        // Set the topic name for testing
-        ReflectionTestUtils.setField(outboxService, "eventScoresTopic", "event-scores");
+        outboxService = outboxService(new SimpleMeterRegistry(), new KafkaCircuitBreaker(new SimpleMeterRegistry()), new FastRetryQueue(new SimpleMeterRegistry()));
+        // The relay never holds the row first unless a test says so
+        lenient().when(messageDao.claimForSend(any())).thenReturn(true);
     }
 
     @Test
@@ -60,7 +67,7 @@ class OutboxServiceTest {
             new org.springframework.kafka.support.SendResult<>(null, mockRecordMetadata);
         CompletableFuture<org.springframework.kafka.support.SendResult<String, String>> successfulFuture = 
             CompletableFuture.completedFuture(mockSendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(successfulFuture);
 
         // When
@@ -74,10 +81,31 @@ class OutboxServiceTest {
         assertTrue(savedMessage.getCreatedAt() != null);
 
         // Verify Kafka was called and status was updated to SENT
-        verify(kafkaTemplate).send(eq("event-scores"), eq(eventId), anyString());
+        verify(kafkaTemplate).send(scoreRecord(eventId));
         verify(messageDao).updateMessageStatus(anyLong(), eq(MessageStatus.SENT), any(LocalDateTime.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCarryOutboxIdHeaderWithoutKafkaTransactions() {
+        // Given
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(80L);
+        RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("event-scores", 0), 0, 0, 0L, null, 0, 0);
+        ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        when(kafkaTemplate.send(recordCaptor.capture()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, recordMetadata)));
+
+        // When
+        outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then
+        ProducerRecord<String, String> record = recordCaptor.getValue();
+        assertEquals("event-scores", record.topic());
+        assertEquals("event-123", record.key());
+        assertEquals("80", new String(record.headers().lastHeader(OutboxService.OUTBOX_ID_HEADER).value()));
+        verify(kafkaTemplate, never()).executeInTransaction(any());
+    }
+
     @Test
     void shouldSaveMessageToOutboxAndMarkAsFailedWhenKafkaSendFails() {
         // Given
@@ -89,7 +117,7 @@ class OutboxServiceTest {
         CompletableFuture<org.springframework.kafka.support.SendResult<String, String>> failedFuture = new CompletableFuture<>();
         RuntimeException exception = new RuntimeException("Kafka connection failed");
         failedFuture.completeExceptionally(exception);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(failedFuture);
 
         // When
@@ -102,8 +130,8 @@ class OutboxServiceTest {
         assertEquals(MessageStatus.PENDING, savedMessage.getStatus());
 
         // Verify Kafka was called and status was marked as FAILED
-        verify(kafkaTemplate).send(eq("event-scores"), eq(eventId), anyString());
-        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class));
+        verify(kafkaTemplate).send(scoreRecord(eventId));
+        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
@@ -121,7 +149,7 @@ class OutboxServiceTest {
                 0, 0, 0L, null, 0, 0);
         org.springframework.kafka.support.SendResult<String, String> mockSendResult = 
             new org.springframework.kafka.support.SendResult<>(null, mockRecordMetadata);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(CompletableFuture.completedFuture(mockSendResult));
 
         // When
@@ -148,7 +176,7 @@ class OutboxServiceTest {
                 0, 0, 0L, null, 0, 0);
         org.springframework.kafka.support.SendResult<String, String> mockSendResult = 
             new org.springframework.kafka.support.SendResult<>(null, mockRecordMetadata);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(CompletableFuture.completedFuture(mockSendResult));
 
         // When
@@ -172,7 +200,7 @@ class OutboxServiceTest {
                 0, 0, 0L, null, 0, 0);
         org.springframework.kafka.support.SendResult<String, String> mockSendResult = 
             new org.springframework.kafka.support.SendResult<>(null, mockRecordMetadata);
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(CompletableFuture.completedFuture(mockSendResult));
 
         // When
@@ -191,7 +219,7 @@ class OutboxServiceTest {
         String currentScore = "1:0";
         CompletableFuture<org.springframework.kafka.support.SendResult<String, String>> timeoutFuture = new CompletableFuture<>();
         timeoutFuture.completeExceptionally(new java.util.concurrent.TimeoutException("Kafka send timeout"));
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
                 .thenReturn(timeoutFuture);
 
         // When
@@ -199,6 +227,500 @@ class OutboxServiceTest {
 
         // Then
         verify(messageDao).insertMessage(any(Message.class));
-        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class));
+        verify(messageDao).markMessageAsFailed(anyLong(), eq(MessageStatus.FAILED), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldRelayClaimedBatchWhenBatchModeIsEnabled() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "batchRelayEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "relayBatchSize", 100);
+
+        Message pendingMessage = new Message();
+        pendingMessage.setId(7L);
+        pendingMessage.setPayload("{\"eventId\":\"event-789\",\"currentScore\":\"1:1\"}");
+        pendingMessage.setEventType("EVENT_SCORE_UPDATE");
+
+        when(messageDao.relayPendingBatch(eq(100), any())).thenAnswer(invocation -> {
+            BiConsumer<MessageDao, List<Message>> relay = invocation.getArgument(1);
+            relay.accept(messageDao, List.of(pendingMessage));
+            return 1;
+        });
+        org.apache.kafka.clients.producer.RecordMetadata mockRecordMetadata =
+            new org.apache.kafka.clients.producer.RecordMetadata(
+                new org.apache.kafka.common.TopicPartition("test-topic", 0),
+                0, 0, 0L, null, 0, 0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, mockRecordMetadata)));
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        verify(messageDao).updateMessageStatus(eq(7L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+        verify(messageDao).relayFailedBatch(eq(100), any());
+        verify(messageDao, never()).findPendingMessages();
+        verify(messageDao, never()).findFailedMessages();
+    }
+
+    @Test
+    void shouldSupersedeStaleMessagesBeforeRelayingWhenCoalescingIsEnabled() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "coalescedEventTypes", List.of("EVENT_SCORE_UPDATE"));
+        when(messageDao.markSupersededMessages(eq(List.of("EVENT_SCORE_UPDATE")), any(LocalDateTime.class))).thenReturn(3);
+        when(messageDao.findPendingMessages()).thenReturn(List.of());
+        when(messageDao.findFailedMessages()).thenReturn(List.of());
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        InOrder inOrder = inOrder(messageDao);
+        inOrder.verify(messageDao).markSupersededMessages(eq(List.of("EVENT_SCORE_UPDATE")), any(LocalDateTime.class));
+        inOrder.verify(messageDao).findPendingMessages();
+    }
+
+    @Test
+    void shouldNotSupersedeMessagesWhenCoalescingIsDisabled() {
+        // Given
+        when(messageDao.findPendingMessages()).thenReturn(List.of());
+        when(messageDao.findFailedMessages()).thenReturn(List.of());
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        verify(messageDao, never()).markSupersededMessages(any(), any());
+    }
+
+    @Test
+    void shouldSendWholeBatchBeforeApplyingOutcomesWhenPipelined() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "pipelinedRelayEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "relaySendTimeoutMs", 5000L);
+
+        Message first = new Message();
+        first.setId(10L);
+        first.setPayload("{\"eventId\":\"event-a\",\"currentScore\":\"1:0\"}");
+        Message second = new Message();
+        second.setId(11L);
+        second.setPayload("{\"eventId\":\"event-b\",\"currentScore\":\"0:1\"}");
+        when(messageDao.findPendingMessages()).thenReturn(List.of(first, second));
+
+        // The first send stays in flight until the second one has been issued
+        CompletableFuture<SendResult<String, String>> firstFuture = new CompletableFuture<>();
+        RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("test-topic", 0), 0, 0, 0L, null, 0, 0);
+        when(kafkaTemplate.send(scoreRecord("event-a"))).thenReturn(firstFuture);
+        when(kafkaTemplate.send(scoreRecord("event-b"))).thenAnswer(invocation -> {
+            firstFuture.complete(new SendResult<>(null, recordMetadata));
+            CompletableFuture<SendResult<String, String>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new RuntimeException("Kafka connection failed"));
+            return failed;
+        });
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        verify(messageDao).updateMessageStatus(eq(10L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+        verify(messageDao).markMessageAsFailed(eq(11L), eq(MessageStatus.FAILED), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldOnlyPersistMessageWhenPublishModeIsRelay() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "publishMode", OutboxPublishMode.RELAY);
+
+        // When
+        outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then
+        verify(messageDao).insertMessage(any(Message.class));
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(messageDao, never()).updateMessageStatus(anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldPublishOutsideCallerWhenPublishModeIsAfterCommit() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "publishMode", OutboxPublishMode.AFTER_COMMIT);
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(42L);
+        RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("test-topic", 0), 0, 0, 0L, null, 0, 0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, recordMetadata)));
+
+        // When
+        outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then
+        verify(kafkaTemplate, timeout(1000)).send(scoreRecord("event-123"));
+        verify(messageDao, timeout(1000)).updateMessageStatus(eq(42L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRelayBatchInOneKafkaTransactionWithOutboxIdHeader() {
+        // Given
+        Message first = new Message();
+        first.setId(20L);
+        first.setPayload("{\"eventId\":\"event-a\",\"currentScore\":\"1:0\"}");
+        Message second = new Message();
+        second.setId(21L);
+        second.setPayload("{\"eventId\":\"event-a\",\"currentScore\":\"2:0\"}");
+        when(messageDao.findPendingMessages()).thenReturn(List.of(first, second));
+
+        when(kafkaTemplate.isTransactional()).thenReturn(true);
+        when(kafkaTemplate.executeInTransaction(any())).thenAnswer(invocation -> {
+            KafkaOperations.OperationsCallback<String, String, Object> callback = invocation.getArgument(0);
+            return callback.doInOperations(kafkaTemplate);
+        });
+        ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        when(kafkaTemplate.send(recordCaptor.capture())).thenReturn(new CompletableFuture<>());
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        List<ProducerRecord<String, String>> records = recordCaptor.getAllValues();
+        assertEquals(2, records.size());
+        assertEquals("20", new String(records.get(0).headers().lastHeader(OutboxService.OUTBOX_ID_HEADER).value()));
+        assertEquals("21", new String(records.get(1).headers().lastHeader(OutboxService.OUTBOX_ID_HEADER).value()));
+        verify(messageDao).updateMessageStatus(eq(20L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+        verify(messageDao).updateMessageStatus(eq(21L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldRelayEachEventInOrderWhenSpreadOverLanes() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        outboxService = outboxService(meterRegistry, new KafkaCircuitBreaker(new SimpleMeterRegistry()), new FastRetryQueue(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(outboxService, "relayLanes", 4);
+
+        String firstPayload = "{\"eventId\":\"event-a\",\"currentScore\":\"1:0\"}";
+        String secondPayload = "{\"eventId\":\"event-a\",\"currentScore\":\"2:0\"}";
+        Message first = new Message();
+        first.setId(30L);
+        first.setEventId("event-a");
+        first.setPayload(firstPayload);
+        Message other = new Message();
+        other.setId(31L);
+        other.setEventId("event-b");
+        other.setPayload("{\"eventId\":\"event-b\",\"currentScore\":\"0:0\"}");
+        Message second = new Message();
+        second.setId(32L);
+        second.setEventId("event-a");
+        second.setPayload(secondPayload);
+        when(messageDao.findPendingMessages()).thenReturn(List.of(first, other, second));
+
+        RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("test-topic", 0), 0, 0, 0L, null, 0, 0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, recordMetadata)));
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(scoreRecord("event-a", firstPayload));
+        inOrder.verify(kafkaTemplate).send(scoreRecord("event-a", secondPayload));
+        verify(messageDao, times(3)).updateMessageStatus(anyLong(), eq(MessageStatus.SENT), any(LocalDateTime.class));
+        double relayed = meterRegistry.find("outbox.relay.lane.messages").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+        assertEquals(3.0, relayed);
+    }
+
+    @Test
+    void shouldNotCountRetryForRowsSkippedAfterCircuitOpensMidBatch() {
+        // Given: the first failed send opens the circuit
+        outboxService = outboxService(new SimpleMeterRegistry(), new KafkaCircuitBreaker(new SimpleMeterRegistry(), true, 1, 60000), new FastRetryQueue(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(outboxService, "batchRelayEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "relayBatchSize", 100);
+
+        Message failing = new Message();
+        failing.setId(8L);
+        failing.setEventId("event-a");
+        failing.setPayload("{\"eventId\":\"event-a\",\"currentScore\":\"1:0\"}");
+        failing.setRetryCount(0);
+        Message skipped = new Message();
+        skipped.setId(9L);
+        skipped.setEventId("event-b");
+        skipped.setPayload("{\"eventId\":\"event-b\",\"currentScore\":\"2:0\"}");
+        skipped.setRetryCount(2);
+        when(messageDao.relayPendingBatch(eq(100), any())).thenAnswer(invocation -> {
+            BiConsumer<MessageDao, List<Message>> relay = invocation.getArgument(1);
+            relay.accept(messageDao, List.of(failing, skipped));
+            return 2;
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")));
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then: only the attempted row counts a retry, the skipped one keeps its status and count
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        verify(messageDao).markMessageAsFailed(eq(8L), eq(MessageStatus.FAILED), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(messageDao, never()).markMessageAsFailed(eq(9L), any(), any(), any());
+        verify(messageDao, never()).updateMessageStatus(eq(9L), any(), any());
+    }
+
+    @Test
+    void shouldOnlyPersistMessageWhileKafkaCircuitIsOpen() {
+        // Given
+        KafkaCircuitBreaker circuitBreaker = new KafkaCircuitBreaker(new SimpleMeterRegistry(), true, 1, 60000);
+        circuitBreaker.onFailure();
+        outboxService = outboxService(new SimpleMeterRegistry(), circuitBreaker, new FastRetryQueue(new SimpleMeterRegistry()));
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(50L);
+
+        // When
+        boolean saved = outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then
+        assertTrue(saved);
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(messageDao, never()).updateMessageStatus(anyLong(), any(), any());
+        verify(messageDao, never()).markMessageAsFailed(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void shouldLeaveClaimedBatchUntouchedAndStopClaimingWhileKafkaCircuitIsOpen() {
+        // Given
+        KafkaCircuitBreaker circuitBreaker = new KafkaCircuitBreaker(new SimpleMeterRegistry(), true, 1, 60000);
+        circuitBreaker.onFailure();
+        outboxService = outboxService(new SimpleMeterRegistry(), circuitBreaker, new FastRetryQueue(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(outboxService, "batchRelayEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "relayBatchSize", 1);
+
+        Message pendingMessage = new Message();
+        pendingMessage.setId(7L);
+        pendingMessage.setEventId("event-789");
+        pendingMessage.setPayload("{\"eventId\":\"event-789\",\"currentScore\":\"1:1\"}");
+        when(messageDao.relayPendingBatch(eq(1), any())).thenAnswer(invocation -> {
+            BiConsumer<MessageDao, List<Message>> relay = invocation.getArgument(1);
+            relay.accept(messageDao, List.of(pendingMessage));
+            return 1;
+        });
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        verify(messageDao, times(1)).relayPendingBatch(eq(1), any());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(messageDao, never()).updateMessageStatus(anyLong(), any(), any());
+        verify(messageDao, never()).markMessageAsFailed(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void shouldRetryFailedSendInMemoryBeforeMarkingMessageAsFailed() {
+        // Given
+        FastRetryQueue fastRetryQueue = new FastRetryQueue(new SimpleMeterRegistry(), true, 3, 10, 2.0, 100);
+        outboxService = outboxService(new SimpleMeterRegistry(), new KafkaCircuitBreaker(new SimpleMeterRegistry()), fastRetryQueue);
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(60L);
+        RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("test-topic", 0), 0, 0, 0L, null, 0, 0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, recordMetadata)));
+
+        try {
+            // When
+            outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+            // Then
+            verify(messageDao, timeout(1000)).updateMessageStatus(eq(60L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+            verify(kafkaTemplate, times(2)).send(scoreRecord("event-123"));
+            verify(messageDao, never()).markMessageAsFailed(anyLong(), any(), any(), any());
+            // The row stayed claimed while it waited in memory, so the relay could not send it meanwhile
+            verify(messageDao, times(1)).claimForSend(60L);
+            verify(messageDao, never()).releaseSendClaim(any());
+        } finally {
+            fastRetryQueue.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPublishPermanentlyFailedMessagesToDeadLetterTopicWithFailureMetadata() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "deadLetterEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "deadLetterTopic", "event-scores.DLT");
+        ReflectionTestUtils.setField(outboxService, "relayBatchSize", 100);
+
+        Message failed = new Message();
+        failed.setId(70L);
+        failed.setEventId("event-dead");
+        failed.setEventType("EVENT_SCORE_UPDATE");
+        failed.setPayload("{\"eventId\":\"event-dead\",\"currentScore\":\"3:1\"}");
+        failed.setStatus(MessageStatus.PERMANENTLY_FAILED);
+        failed.setRetryCount(5);
+        when(messageDao.deadLetterBatch(eq(100), any())).thenAnswer(invocation -> {
+            BiConsumer<MessageDao, List<Message>> deadLetter = invocation.getArgument(1);
+            deadLetter.accept(messageDao, List.of(failed));
+            return 1;
+        });
+        RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("event-scores.DLT", 0), 0, 0, 0L, null, 0, 0);
+        ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        when(kafkaTemplate.send(recordCaptor.capture()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, recordMetadata)));
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        ProducerRecord<String, String> record = recordCaptor.getValue();
+        assertEquals("event-scores.DLT", record.topic());
+        assertEquals("event-dead", record.key());
+        assertEquals("70", new String(record.headers().lastHeader(OutboxService.OUTBOX_ID_HEADER).value()));
+        assertEquals("event-scores", new String(record.headers().lastHeader(OutboxService.DLT_ORIGINAL_TOPIC_HEADER).value()));
+        assertEquals("5", new String(record.headers().lastHeader(OutboxService.DLT_RETRY_COUNT_HEADER).value()));
+        verify(messageDao).markDeadLettered(eq(List.of(70L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotMarkMessageAsDeadLetteredWhenDeadLetterSendFails() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "deadLetterEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "deadLetterTopic", "event-scores.DLT");
+        ReflectionTestUtils.setField(outboxService, "relayBatchSize", 100);
+
+        Message failed = new Message();
+        failed.setId(71L);
+        failed.setEventId("event-dead");
+        failed.setPayload("{\"eventId\":\"event-dead\",\"currentScore\":\"3:1\"}");
+        when(messageDao.deadLetterBatch(eq(100), any())).thenAnswer(invocation -> {
+            BiConsumer<MessageDao, List<Message>> deadLetter = invocation.getArgument(1);
+            deadLetter.accept(messageDao, List.of(failed));
+            return 1;
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")));
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then
+        verify(messageDao, never()).markDeadLettered(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRelayBatchInOneKafkaTransactionEvenWhenLanesAreConfigured() {
+        // Given
+        ReflectionTestUtils.setField(outboxService, "relayLanes", 4);
+        Message first = new Message();
+        first.setId(80L);
+        first.setEventId("event-a");
+        first.setPayload("{\"eventId\":\"event-a\",\"currentScore\":\"1:0\"}");
+        Message second = new Message();
+        second.setId(81L);
+        second.setEventId("event-b");
+        second.setPayload("{\"eventId\":\"event-b\",\"currentScore\":\"0:1\"}");
+        when(messageDao.findPendingMessages()).thenReturn(List.of(first, second));
+
+        when(kafkaTemplate.isTransactional()).thenReturn(true);
+        when(kafkaTemplate.executeInTransaction(any())).thenAnswer(invocation -> {
+            KafkaOperations.OperationsCallback<String, String, Object> callback = invocation.getArgument(0);
+            return callback.doInOperations(kafkaTemplate);
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        // When
+        outboxService.processPendingMessages();
+
+        // Then: both events went out in a single transaction instead of one per lane
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        verify(messageDao).updateMessageStatus(eq(80L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+        verify(messageDao).updateMessageStatus(eq(81L), eq(MessageStatus.SENT), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldNotSendMessageAlreadyClaimedByRelay() {
+        // Given
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(90L);
+        when(messageDao.claimForSend(90L)).thenReturn(false);
+
+        // When
+        boolean saved = outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then: the relay owns the row and sends it, the publisher backs off
+        assertTrue(saved);
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(messageDao, never()).updateMessageStatus(anyLong(), any(), any());
+        verify(messageDao, never()).markMessageAsFailed(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void shouldNotTakeCircuitPermissionForMessageClaimedByRelay() {
+        // Given
+        KafkaCircuitBreaker circuitBreaker = spy(new KafkaCircuitBreaker(new SimpleMeterRegistry()));
+        outboxService = outboxService(new SimpleMeterRegistry(), circuitBreaker, new FastRetryQueue(new SimpleMeterRegistry()));
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(91L);
+        when(messageDao.claimForSend(91L)).thenReturn(false);
+
+        // When
+        outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then: no permission is left without an outcome, which would hold a half-open trial slot
+        verify(circuitBreaker, never()).tryAcquirePermission();
+    }
+
+    @Test
+    void shouldHandClaimBackWhenCircuitDeniesPermission() {
+        // Given: the half-open trial is already taken by another sender
+        KafkaCircuitBreaker circuitBreaker = spy(new KafkaCircuitBreaker(new SimpleMeterRegistry()));
+        doReturn(false).when(circuitBreaker).tryAcquirePermission();
+        outboxService = outboxService(new SimpleMeterRegistry(), circuitBreaker, new FastRetryQueue(new SimpleMeterRegistry()));
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(92L);
+        when(messageDao.claimForSend(92L)).thenReturn(true);
+
+        // When
+        outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+        // Then
+        verify(messageDao).releaseSendClaim(92L);
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void shouldHandClaimBackToRelayWhenCircuitOpensBeforeFastRetry() {
+        // Given: the first failure opens the circuit
+        FastRetryQueue fastRetryQueue = new FastRetryQueue(new SimpleMeterRegistry(), true, 3, 10, 2.0, 100);
+        outboxService = outboxService(new SimpleMeterRegistry(), new KafkaCircuitBreaker(new SimpleMeterRegistry(), true, 1, 60000), fastRetryQueue);
+        when(messageDao.insertMessage(any(Message.class))).thenReturn(61L);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")));
+
+        try {
+            // When
+            outboxService.saveMessageAndSendToKafka("event-123", "1:0");
+
+            // Then: the retry does not send and the row goes back to PENDING without a counted attempt
+            verify(messageDao, timeout(1000)).releaseSendClaim(61L);
+            verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+            verify(messageDao, never()).markMessageAsFailed(anyLong(), any(), any(), any());
+        } finally {
+            fastRetryQueue.shutdown();
+        }
+    }
+
+    private OutboxService outboxService(SimpleMeterRegistry meterRegistry, KafkaCircuitBreaker circuitBreaker, FastRetryQueue fastRetryQueue) {
+        OutboxService service = new OutboxService(messageDao, kafkaTemplate, new RetryBackoffPolicy(1000, 2.0, 60000, 0.2), meterRegistry,
+                new OutboxWriter(messageDao, new SimpleMeterRegistry()), TransactionOperations.withoutTransaction(), circuitBreaker, fastRetryQueue);
+        // Set the topic name for testing
+        ReflectionTestUtils.setField(service, "eventScoresTopic", "event-scores");
+        return service;
+    }
+
+    private static ProducerRecord<String, String> scoreRecord(String key) {
+        return argThat(record -> record != null && "event-scores".equals(record.topic()) && key.equals(record.key()));
+    }
+
+    private static ProducerRecord<String, String> scoreRecord(String key, String payload) {
+        return argThat(record -> record != null && "event-scores".equals(record.topic()) && key.equals(record.key())
+                && payload.equals(record.value()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.sporty.homework.event_publisher.service;
+
+import com.sporty.homework.event_publisher.dao.MessageDao;
+import com.sporty.homework.event_publisher.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxWriterTest {
+
+    @Mock
+    private MessageDao messageDao;
+
+    private OutboxWriter outboxWriter;
+
+    @AfterEach
+    void tearDown() {
+        if (outboxWriter != null) {
+            outboxWriter.shutdown();
+        }
+    }
+
+    @Test
+    void shouldInsertDirectlyWithoutGroupCommit() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry());
+        Message message = message("event-1");
+        when(messageDao.insertMessage(message)).thenReturn(42L);
+
+        // When
+        Long id = outboxWriter.insert(message).join();
+
+        // Then
+        assertEquals(42L, id);
+        verify(messageDao, never()).insertMessages(anyList());
+    }
+
+    @Test
+    void shouldMergeConcurrentInsertsIntoOneBatchAndHandBackTheirIds() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry(), true, 500, 200, 1000);
+        when(messageDao.insertMessages(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            // Ids mirror the event number, so each caller can check it got its own id
+            return messages.stream().map(message -> Long.parseLong(message.getEventId().substring(6))).toList();
+        });
+
+        // When
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(outboxWriter.insert(message("event-" + i)));
+        }
+
+        // Then
+        List<Long> ids = futures.stream().map(CompletableFuture::join).toList();
+        assertEquals(LongStream.range(0, 50).boxed().toList(), ids);
+        verify(messageDao, atMost(2)).insertMessages(anyList());
+        verify(messageDao, never()).insertMessage(any());
+    }
+
+    @Test
+    void shouldWriteBatchOfRowsThroughTheGroupCommit() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry(), true, 500, 200, 1000);
+        when(messageDao.insertMessages(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            return messages.stream().map(message -> Long.parseLong(message.getEventId().substring(6))).toList();
+        });
+
+        // When: a pipeline batch and a single insert arrive together
+        List<CompletableFuture<Long>> batch = outboxWriter.insertAll(List.of(message("event-1"), message("event-2")));
+        CompletableFuture<Long> single = outboxWriter.insert(message("event-3"));
+
+        // Then: they share one group commit
+        assertEquals(List.of(1L, 2L), batch.stream().map(CompletableFuture::join).toList());
+        assertEquals(3L, single.join());
+        verify(messageDao).insertMessages(anyList());
+    }
+
+    @Test
+    void shouldWriteBatchOfRowsInOneInsertWithoutGroupCommit() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry());
+        when(messageDao.insertMessages(anyList())).thenReturn(List.of(7L, 8L));
+
+        // When
+        List<CompletableFuture<Long>> ids = outboxWriter.insertAll(List.of(message("event-1"), message("event-2")));
+
+        // Then
+        assertEquals(List.of(7L, 8L), ids.stream().map(CompletableFuture::join).toList());
+        verify(messageDao, never()).insertMessage(any());
+    }
+
+    @Test
+    void shouldNotExceedTheMaximumBatchSize() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry(), true, 10, 200, 1000);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(messageDao.insertMessages(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            batchSizes.add(messages.size());
+            return LongStream.range(0, messages.size()).boxed().toList();
+        });
+
+        // When
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            futures.add(outboxWriter.insert(message("event-" + i)));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        // Then
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertEquals(35, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void shouldFailEveryFutureOfAFailedBatch() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry(), true, 500, 50, 1000);
+        when(messageDao.insertMessages(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        // When
+        CompletableFuture<Long> first = outboxWriter.insert(message("event-1"));
+        CompletableFuture<Long> second = outboxWriter.insert(message("event-2"));
+
+        // Then
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    @Test
+    void shouldRejectInsertsAfterShutdown() {
+        // Given
+        outboxWriter = new OutboxWriter(messageDao, new SimpleMeterRegistry(), true, 500, 5, 1000);
+        outboxWriter.shutdown();
+
+        // When & Then
+        assertThrows(CompletionException.class, () -> outboxWriter.insert(message("event-1")).join());
+        verifyNoInteractions(messageDao);
+    }
+
+    @Test
+    void shouldCompleteEveryInsertRacingShutdown() throws Exception {
+        lenient().when(messageDao.insertMessages(anyList()))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, ((List<?>) invocation.getArgument(0)).size()).boxed().toList());
+
+        for (int i = 0; i < 200; i++) {
+            // Given
+            OutboxWriter writer = new OutboxWriter(messageDao, new SimpleMeterRegistry(), true, 500, 0, 1000);
+            CompletableFuture<CompletableFuture<Long>> racingInsert = CompletableFuture.supplyAsync(() -> writer.insert(message("event-1")));
+
+            // When
+            writer.shutdown();
+
+            // Then: the insert is either written or rejected, never left waiting
+            CompletableFuture<Long> inserted = racingInsert.get(5, TimeUnit.SECONDS);
+            try {
+                inserted.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+    }
+
+    private static Message message(String eventId) {
+        Message message = new Message();
+        message.setEventId(eventId);
+        message.setEventType("EVENT_SCORE_UPDATE");
+        message.setPayload("{}");
+        return message;
+    }
+}
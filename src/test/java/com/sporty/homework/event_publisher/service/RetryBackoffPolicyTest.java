@@ -0,0 +1,63 @@
+package com.sporty.homework.event_publisher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBackoffPolicyTest {
+
+    @Test
+    void shouldGrowDelayExponentiallyWithoutJitter() {
+        // Given
+        RetryBackoffPolicy policy = new RetryBackoffPolicy(1000, 2.0, 60000, 0.0);
+
+        // When & Then
+        assertEquals(Duration.ofMillis(1000), policy.nextDelay(1));
+        assertEquals(Duration.ofMillis(2000), policy.nextDelay(2));
+        assertEquals(Duration.ofMillis(8000), policy.nextDelay(4));
+    }
+
+    @Test
+    void shouldCapDelayAtMaximum() {
+        // Given
+        RetryBackoffPolicy policy = new RetryBackoffPolicy(1000, 2.0, 5000, 0.0);
+
+        // When
+        Duration delay = policy.nextDelay(10);
+
+        // Then
+        assertEquals(Duration.ofMillis(5000), delay);
+    }
+
+    @Test
+    void shouldKeepJitteredDelayWithinBounds() {
+        // Given
+        RetryBackoffPolicy policy = new RetryBackoffPolicy(1000, 2.0, 60000, 0.2);
+
+        // When & Then: the jitter only shortens the delay
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.nextDelay(3).toMillis();
+            assertTrue(delay >= 3200 && delay <= 4000, "Delay out of jitter bounds: " + delay);
+        }
+    }
+
+    @Test
+    void shouldSpreadCappedDelaysBelowMaximum() {
+        // Given
+        RetryBackoffPolicy policy = new RetryBackoffPolicy(1000, 2.0, 5000, 0.2);
+        Set<Long> delays = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            delays.add(policy.nextDelay(10).toMillis());
+        }
+
+        // Then: capped retries stay jittered instead of all waiting exactly the maximum
+        assertTrue(delays.stream().allMatch(delay -> delay >= 4000 && delay <= 5000), "Delay out of bounds: " + delays);
+        assertTrue(delays.size() > 1, "Capped delays are all equal: " + delays);
+    }
+}